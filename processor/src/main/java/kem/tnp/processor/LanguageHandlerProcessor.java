@@ -0,0 +1,117 @@
+package kem.tnp.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compile-time registry of language parsers.
+ * This processor collects all classes marked with {@code kem.tnp.common.LanguageHandler} annotation and writes them to
+ * {@code META-INF/services/kem.tnp.common.LangNumberParser} file, so the parsers can be discovered by {@linkplain java.util.ServiceLoader}
+ * without scanning the classpath.<p/>
+ * Annotated class must be a public non-abstract class that implements {@code kem.tnp.common.LangNumberParser} interface and has
+ * a public no-arguments constructor. Otherwise, a compilation error is reported.<p/>
+ * The annotation and the interface are referred by name, so this processor does not depend on the library itself.
+ * Created on 17-Oct-26 at 10:41 PM.
+ */
+public class LanguageHandlerProcessor extends AbstractProcessor {
+	static final String ANNOTATION = "kem.tnp.common.LanguageHandler";
+	static final String SERVICE = "kem.tnp.common.LangNumberParser";
+	static final String SERVICE_FILE = "META-INF/services/" + SERVICE;
+
+	private final Set<String> providers = new TreeSet<>();
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return Collections.singleton(ANNOTATION);
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if(roundEnv.processingOver()) {
+			writeServiceFile();
+			return false;
+		}
+		final TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+		final TypeElement service = processingEnv.getElementUtils().getTypeElement(SERVICE);
+		if(annotation == null || service == null) {
+			return false;
+		}
+		for(Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+			if(isValidProvider(element, service)) {
+				providers.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+			}
+		}
+		return false;
+	}
+
+	private boolean isValidProvider(Element element, TypeElement service) {
+		final Messager messager = processingEnv.getMessager();
+		if(element.getKind() != ElementKind.CLASS) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "@LanguageHandler can be applied to classes only", element);
+			return false;
+		}
+		final Set<Modifier> modifiers = element.getModifiers();
+		if(!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "@LanguageHandler class must be public and non-abstract", element);
+			return false;
+		}
+		if(element.getEnclosingElement().getKind() != ElementKind.PACKAGE && !modifiers.contains(Modifier.STATIC)) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "@LanguageHandler nested class must be static", element);
+			return false;
+		}
+		final Types types = processingEnv.getTypeUtils();
+		final TypeMirror serviceType = types.erasure(service.asType());
+		if(!types.isAssignable(types.erasure(element.asType()), serviceType)) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "@LanguageHandler class must implement " + SERVICE, element);
+			return false;
+		}
+		final boolean hasDefaultConstructor = ElementFilter.constructorsIn(element.getEnclosedElements())
+				.stream()
+				.anyMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC));
+		if(!hasDefaultConstructor) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "@LanguageHandler class must have a public no-arguments constructor", element);
+			return false;
+		}
+		return true;
+	}
+
+	private void writeServiceFile() {
+		if(providers.isEmpty()) {
+			return;
+		}
+		final Filer filer = processingEnv.getFiler();
+		try {
+			final FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+			try(Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+				for(String provider : providers) {
+					writer.write(provider);
+					writer.write('\n');
+				}
+			}
+		} catch(IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + SERVICE_FILE + ": " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package kem.tnp.common;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of {@linkplain LanguageDetector#detectLanguages(CharSequence)} call, see {@linkplain DetectLanguagesEvent}.
+ * The language is the most probable one.
+ * Created on 18-Oct-26 at 11:40 AM.
+ */
+@Name(DetectLanguagesEvent.NAME)
+@Label("Detect Languages")
+@Description("Detection of the input languages")
+@Threshold("1 ms")
+final class DetectLanguagesFlightEvent extends ParserFlightEvent {
+	@Label("Cached")
+	@Description("The result was taken from the detector cache")
+	boolean cached;
+
+	@Label("Candidates")
+	@Description("Number of detected languages")
+	int candidates;
+
+	@Label("Normalization Duration")
+	@Timespan
+	long normalizeNanos;
+
+	@Label("Scanning Duration")
+	@Timespan
+	long scanNanos;
+
+	@Override
+	void copy(ParserEvent event) {
+		final DetectLanguagesEvent e = (DetectLanguagesEvent) event;
+		cached = e.cached;
+		candidates = e.candidates;
+		normalizeNanos = e.normalizeNanos;
+		scanNanos = e.scanNanos;
+	}
+}
@@ -0,0 +1,22 @@
+package kem.tnp.common;
+
+/**
+ * Creates the JFR events. It is instantiated by name (see {@linkplain ParserEvent}) if <code>jdk.jfr</code> module is available.
+ * Created on 19-Oct-26 at 11:05 AM.
+ */
+final class FlightEvents implements ParserEvent.Recordings {
+	@Override
+	public ParserEvent.Recording textToNumber() {
+		return new TextToNumberFlightEvent();
+	}
+
+	@Override
+	public ParserEvent.Recording numberToString() {
+		return new NumberToStringFlightEvent();
+	}
+
+	@Override
+	public ParserEvent.Recording detectLanguages() {
+		return new DetectLanguagesFlightEvent();
+	}
+}
@@ -0,0 +1,38 @@
+package kem.tnp.common;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of {@linkplain StringNumberParser#numberToString(Long, String, ParserConfig)} and
+ * {@linkplain StringNumberParser#render(long, String, ParserConfig, StringBuilder)} calls, see {@linkplain NumberToStringEvent}.
+ * Input length and token count describe the produced text.
+ * Created on 18-Oct-26 at 11:35 AM.
+ */
+@Name(NumberToStringEvent.NAME)
+@Label("Number To String")
+@Description("Conversion of a number to its text form")
+@Threshold("1 ms")
+final class NumberToStringFlightEvent extends ParserFlightEvent {
+	@Label("Value")
+	long value;
+
+	@Label("Parser Lookup Duration")
+	@Timespan
+	long lookupNanos;
+
+	@Label("Rendering Duration")
+	@Timespan
+	long renderNanos;
+
+	@Override
+	void copy(ParserEvent event) {
+		final NumberToStringEvent e = (NumberToStringEvent) event;
+		value = e.value;
+		lookupNanos = e.lookupNanos;
+		renderNanos = e.renderNanos;
+	}
+}
@@ -0,0 +1,49 @@
+package kem.tnp.common;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the Java Flight Recorder events the library emits. Like any JFR event, the events are configured in a recording
+ * settings file (.jfc) or on the command line by their names, e.g.
+ * <pre>
+ * -XX:StartFlightRecording:settings=profile,kem.tnp.TextToNumber#threshold=100us
+ * </pre>
+ * The library code fills a {@linkplain ParserEvent} and this event only measures the duration and records the filled values,
+ * so the library itself doesn't depend on <code>jdk.jfr</code> module.
+ * Created on 18-Oct-26 at 11:20 AM.
+ */
+@Category("Text Number Parser")
+abstract class ParserFlightEvent extends Event implements ParserEvent.Recording {
+	@Label("Language")
+	String language;
+
+	@Label("Input Length")
+	@Description("Number of characters")
+	int inputLength;
+
+	@Label("Token Count")
+	int tokenCount;
+
+	@Label("Outcome")
+	String outcome;
+
+	@Override
+	public void commit(ParserEvent event) {
+		language = event.language;
+		inputLength = event.inputLength;
+		tokenCount = event.tokenCount;
+		outcome = event.outcome;
+		copy(event);
+		commit();
+	}
+
+	/**
+	 * Copies the values specific to this event.
+	 *
+	 * @param event filled event
+	 */
+	abstract void copy(ParserEvent event);
+}
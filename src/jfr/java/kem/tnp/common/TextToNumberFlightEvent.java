@@ -0,0 +1,51 @@
+package kem.tnp.common;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of {@linkplain StringNumberParser#textToNumber(String, ParserConfig, String...)} call, see {@linkplain TextToNumberEvent}.
+ * Created on 18-Oct-26 at 11:30 AM.
+ */
+@Name(TextToNumberEvent.NAME)
+@Label("Text To Number")
+@Description("Conversion of a number text form to its numeric form")
+@Threshold("1 ms")
+final class TextToNumberFlightEvent extends ParserFlightEvent {
+	@Label("Cached")
+	@Description("The result was taken from the results cache")
+	boolean cached;
+
+	@Label("Normalization Duration")
+	@Timespan
+	long normalizeNanos;
+
+	@Label("Detection Duration")
+	@Timespan
+	long detectNanos;
+
+	@Label("Parser Lookup Duration")
+	@Timespan
+	long lookupNanos;
+
+	@Label("Parsing Duration")
+	@Timespan
+	long parseNanos;
+
+	@Label("Value")
+	long value;
+
+	@Override
+	void copy(ParserEvent event) {
+		final TextToNumberEvent e = (TextToNumberEvent) event;
+		cached = e.cached;
+		normalizeNanos = e.normalizeNanos;
+		detectNanos = e.detectNanos;
+		lookupNanos = e.lookupNanos;
+		parseNanos = e.parseNanos;
+		value = e.value;
+	}
+}
@@ -0,0 +1,72 @@
+package kem.tnp.benchmarks;
+
+import kem.tnp.common.ParallelNumberParser;
+import kem.tnp.common.ParserConfig;
+import kem.tnp.common.StringNumberParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of bulk conversion, reported per element: a column converted sequentially vs. in parallel on the common pool.
+ * Parallel score is expected to grow with the number of cores.
+ * Created on 18-Oct-26 at 1:50 PM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkConversionBenchmark {
+	private static final int COLUMN_SIZE = 1 << 16;
+
+	@Param({"en", "ru"})
+	public String language;
+
+	private final long[] numbers = new long[COLUMN_SIZE];
+	private List<String> column;
+	private final long[] values = new long[COLUMN_SIZE];
+	private final BitSet failures = new BitSet(COLUMN_SIZE);
+	private ParallelNumberParser bulk;
+
+	@Setup
+	public void setUp() {
+		for(int i = 0; i < COLUMN_SIZE; i++) {
+			numbers[i] = i * 1_000_003L;
+		}
+		bulk = StringNumberParser.parallel();
+		column = Arrays.asList(bulk.numbersToStrings(numbers, language));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COLUMN_SIZE)
+	public int textToNumbersSequential() {
+		return StringNumberParser.textToNumbers(column, values, failures, ParserConfig.EMPTY, language);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COLUMN_SIZE)
+	public int textToNumbersParallel() {
+		return bulk.textToNumbers(column, values, failures, language);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COLUMN_SIZE)
+	public String[] numbersToStringsSequential() {
+		final String[] res = new String[COLUMN_SIZE];
+		for(int i = 0; i < COLUMN_SIZE; i++) {
+			res[i] = StringNumberParser.numberToString(numbers[i], language);
+		}
+		return res;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COLUMN_SIZE)
+	public String[] numbersToStringsParallel() {
+		return bulk.numbersToStrings(numbers, language);
+	}
+}
@@ -0,0 +1,61 @@
+package kem.tnp.benchmarks;
+
+import kem.tnp.common.LanguageDetector;
+import kem.tnp.common.Tuple2;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state throughput of language detection on number phrases.
+ * Created on 17-Oct-26 at 10:16 PM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LanguageDetectorBenchmark {
+
+	@Param({"en", "ru"})
+	public String language;
+
+	@Param({Phrases.TOKEN_1, Phrases.HUNDREDS, Phrases.MILLIONS, Phrases.TRILLIONS})
+	public String size;
+
+	private String input;
+	private LanguageDetector detector;
+	// About 1 MB of repeated input, detection work should not depend on its length.
+	private String document;
+
+	@Setup
+	public void setUp() {
+		input = Phrases.text(language, size);
+		detector = LanguageDetector.getLanguageDetector();
+		final StringBuilder sb = new StringBuilder();
+		while(sb.length() < 1024 * 1024) {
+			sb.append(input).append('\n');
+		}
+		document = sb.toString();
+		// Load dictionaries outside the measurement.
+		detector.detectLanguages(input);
+	}
+
+	@Benchmark
+	public Optional<List<Tuple2<String, Float>>> detectLanguages() {
+		return detector.detectLanguages(input);
+	}
+
+	@Benchmark
+	public Optional<String> detectLanguage() {
+		return detector.detectLanguage(input);
+	}
+
+	@Benchmark
+	public Optional<String> detectLanguageInDocument() {
+		return detector.detectLanguage(document);
+	}
+}
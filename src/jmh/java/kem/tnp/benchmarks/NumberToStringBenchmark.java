@@ -0,0 +1,66 @@
+package kem.tnp.benchmarks;
+
+import kem.tnp.common.ParserConfig;
+import kem.tnp.common.StringNumberParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state throughput of number to text conversion.
+ * Created on 17-Oct-26 at 10:10 PM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NumberToStringBenchmark {
+
+	@Param({"en", "ru"})
+	public String language;
+
+	@Param({Phrases.TOKEN_1, Phrases.HUNDREDS, Phrases.MILLIONS, Phrases.TRILLIONS})
+	public String size;
+
+	private Long input;
+	private final Map<String, Object> params = new HashMap<>();
+	private ParserConfig config;
+	private final StringBuilder buffer = new StringBuilder(256);
+
+	@Setup
+	public void setUp() {
+		input = Phrases.number(size);
+		// English parser recognizes both parameters, Russian one ignores them.
+		params.put("onePrefix", "a");
+		params.put("useHyphen", "false");
+		config = ParserConfig.of(params);
+		if(!Phrases.number(size).equals(StringNumberParser.textToNumber(StringNumberParser.numberToString(input, language), language))) {
+			throw new IllegalStateException("Unexpected render result for " + input);
+		}
+	}
+
+	@Benchmark
+	public String numberToString() {
+		return StringNumberParser.numberToString(input, language);
+	}
+
+	@Benchmark
+	public String numberToStringWithParams() {
+		return StringNumberParser.numberToString(input, language, params);
+	}
+
+	@Benchmark
+	public String numberToStringWithConfig() {
+		return StringNumberParser.numberToString(input, language, config);
+	}
+
+	@Benchmark
+	public StringBuilder renderIntoReusedBuffer() {
+		buffer.setLength(0);
+		return StringNumberParser.render(input, language, config, buffer);
+	}
+}
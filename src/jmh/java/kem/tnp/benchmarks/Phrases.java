@@ -0,0 +1,61 @@
+package kem.tnp.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Benchmark inputs: the same numbers written in every supported language, from a single token up to a full "trillions" phrase.
+ * Created on 17-Oct-26 at 9:55 PM.
+ */
+final class Phrases {
+	/**
+	 * Input sizes used as JMH {@code @Param} values.
+	 */
+	static final String TOKEN_1 = "TOKEN_1";
+	static final String HUNDREDS = "HUNDREDS";
+	static final String MILLIONS = "MILLIONS";
+	static final String TRILLIONS = "TRILLIONS";
+
+	private static final Map<String, Long> NUMBERS = new HashMap<>();
+	private static final Map<String, Map<String, String>> TEXTS = new HashMap<>();
+
+	static {
+		NUMBERS.put(TOKEN_1, 7L);
+		NUMBERS.put(HUNDREDS, 342L);
+		NUMBERS.put(MILLIONS, 72_462_609L);
+		NUMBERS.put(TRILLIONS, 314_042_517_234_583L);
+
+		final Map<String, String> en = new HashMap<>();
+		en.put(TOKEN_1, "seven");
+		en.put(HUNDREDS, "three hundred forty-two");
+		en.put(MILLIONS, "seventy-two million four hundred sixty-two thousand six hundred and nine");
+		en.put(TRILLIONS, "three hundred fourteen trillion forty-two billion five hundred seventeen million two hundred thirty-four thousand five hundred eighty-three");
+		TEXTS.put("en", en);
+
+		final Map<String, String> ru = new HashMap<>();
+		ru.put(TOKEN_1, "семь");
+		ru.put(HUNDREDS, "триста сорок два");
+		ru.put(MILLIONS, "семьдесят два миллиона четыреста шестьдесят две тысячи шестьсот девять");
+		ru.put(TRILLIONS, "триста четырнадцать триллионов сорок два миллиарда пятьсот семнадцать миллионов двести тридцать четыре тысячи пятьсот восемьдесят три");
+		TEXTS.put("ru", ru);
+	}
+
+	private Phrases() {
+	}
+
+	static String text(String languageCode, String size) {
+		final Map<String, String> texts = TEXTS.get(languageCode);
+		if(texts == null || !texts.containsKey(size)) {
+			throw new IllegalArgumentException("No benchmark input for " + languageCode + "/" + size);
+		}
+		return texts.get(size);
+	}
+
+	static Long number(String size) {
+		final Long number = NUMBERS.get(size);
+		if(number == null) {
+			throw new IllegalArgumentException("No benchmark input for " + size);
+		}
+		return number;
+	}
+}
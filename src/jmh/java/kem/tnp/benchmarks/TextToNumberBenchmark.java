@@ -0,0 +1,115 @@
+package kem.tnp.benchmarks;
+
+import kem.tnp.common.FusedNumberParser;
+import kem.tnp.common.LangNumberParser;
+import kem.tnp.common.LanguageException;
+import kem.tnp.common.ParseResult;
+import kem.tnp.common.ParserConfig;
+import kem.tnp.common.PinnedNumberParser;
+import kem.tnp.common.StringNumberParser;
+import kem.tnp.common.UnrecognizedTokenException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state throughput of text to number conversion.
+ * Every input size is measured both through {@linkplain StringNumberParser#textToNumber(String, String...)} (language detection included)
+ * and directly through the language parser (no language detection).
+ * Batch conversion of a column is reported per element, so its score is comparable with the single input ones.
+ * Created on 17-Oct-26 at 10:02 PM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextToNumberBenchmark {
+	private static final int COLUMN_SIZE = 1024;
+
+	@Param({"en", "ru"})
+	public String language;
+
+	@Param({Phrases.TOKEN_1, Phrases.HUNDREDS, Phrases.MILLIONS, Phrases.TRILLIONS})
+	public String size;
+
+	private String input;
+	private LangNumberParser parser;
+	private PinnedNumberParser pinned;
+	private FusedNumberParser fused;
+	private String invalidInput;
+	private final ParseResult result = new ParseResult();
+	private final Map<String, Object> params = Collections.emptyMap();
+	private List<String> column;
+	private final long[] values = new long[COLUMN_SIZE];
+	private final BitSet failures = new BitSet(COLUMN_SIZE);
+
+	@Setup
+	public void setUp() {
+		input = Phrases.text(language, size);
+		invalidInput = input + " zaza";
+		parser = StringNumberParser.getLangNumberParser(language)
+				.orElseThrow(() -> new LanguageException("Couldn't find handler for language " + language));
+		pinned = StringNumberParser.pin(language);
+		fused = StringNumberParser.fuse();
+		column = Collections.nCopies(COLUMN_SIZE, input);
+		if(!Phrases.number(size).equals(StringNumberParser.textToNumber(input, language))) {
+			throw new IllegalStateException("Unexpected parse result for \"" + input + "\"");
+		}
+	}
+
+	@Benchmark
+	public Long withDetection() {
+		return StringNumberParser.textToNumber(input, language);
+	}
+
+	@Benchmark
+	public Long withDetectionAndParams() {
+		return StringNumberParser.textToNumber(input, params, language);
+	}
+
+	@Benchmark
+	public Long withoutDetection() {
+		return parser.stringToNumber(input);
+	}
+
+	@Benchmark
+	public long parseLongPinned() {
+		return pinned.parseLong(input, result);
+	}
+
+	@Benchmark
+	public long parseLongFused() {
+		return fused.parseLong(input, result);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COLUMN_SIZE)
+	public int textToNumbersBatch() {
+		return StringNumberParser.textToNumbers(column, values, failures, ParserConfig.EMPTY, language);
+	}
+
+	@Benchmark
+	public long parseLongWithoutDetection() {
+		return parser.parseLong(input, result);
+	}
+
+	@Benchmark
+	public long parseLongInvalidWithoutDetection() {
+		return parser.parseLong(invalidInput, result);
+	}
+
+	@Benchmark
+	public Object stringToNumberInvalidWithoutDetection() {
+		try {
+			return parser.stringToNumber(invalidInput);
+		} catch(UnrecognizedTokenException e) {
+			return e;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package kem.tnp.common;
+
+/**
+ * Mutable view of a [start, end) range of a {@linkplain CharSequence}. It is used as a lookup key in maps with {@linkplain String} keys,
+ * so a token can be looked up without creating a substring:
+ * {@linkplain #hashCode()} is the same as {@linkplain String#hashCode()} of the range content and
+ * {@linkplain #equals(Object)} compares the range content with any {@linkplain CharSequence}.<p/>
+ * This works with {@linkplain java.util.HashMap} (and {@linkplain java.util.concurrent.ConcurrentHashMap}) only, since their lookup calls
+ * <code>key.equals(storedKey)</code>. An instance is not thread-safe and must not be stored in a map.
+ * Created on 18-Oct-26 at 12:25 AM.
+ */
+final class CharSpan implements CharSequence {
+	private CharSequence input;
+	private int start;
+	private int end;
+	private int hash;
+
+	CharSpan set(CharSequence input, int start, int end) {
+		this.input = input;
+		this.start = start;
+		this.end = end;
+		int h = 0;
+		for(int i = start; i < end; i++) {
+			h = 31 * h + input.charAt(i);
+		}
+		this.hash = h;
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return end - start;
+	}
+
+	@Override
+	public char charAt(int index) {
+		return input.charAt(start + index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return input.subSequence(this.start + start, this.start + end);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(this == o) {
+			return true;
+		}
+		if(!(o instanceof CharSequence)) {
+			return false;
+		}
+		final CharSequence other = (CharSequence) o;
+		if(other.length() != length()) {
+			return false;
+		}
+		for(int i = 0; i < other.length(); i++) {
+			if(other.charAt(i) != input.charAt(start + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return input.subSequence(start, end).toString();
+	}
+}
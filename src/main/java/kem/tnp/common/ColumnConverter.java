@@ -0,0 +1,138 @@
+package kem.tnp.common;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Converts column of text inputs whose language is inferred once from a sample of the column,
+ * see {@linkplain StringNumberParser#textToNumbers(List, long[], BitSet, ParserConfig, String...)}.
+ * An instance is immutable, so ranges of the same column may be converted by different threads.
+ * Created on 18-Oct-26 at 1:10 PM.
+ */
+final class ColumnConverter {
+	private final String languageCode; // null if the column language is unknown
+	private final LangNumberParser parser; // null if the column language is unknown or has no parser
+	private final ParserConfig config;
+	private final String[] defaultLanguageCode;
+
+	private ColumnConverter(String languageCode, LangNumberParser parser, ParserConfig config, String[] defaultLanguageCode) {
+		this.languageCode = languageCode;
+		this.parser = parser;
+		this.config = config;
+		this.defaultLanguageCode = defaultLanguageCode;
+	}
+
+	/**
+	 * Infers language of the given column.
+	 *
+	 * @param inputs numbers in text form
+	 * @param config configuration parameters
+	 * @return converter of the given column
+	 */
+	static ColumnConverter of(List<? extends CharSequence> inputs, ParserConfig config, String[] defaultLanguageCode) {
+		final String languageCode = inferLanguage(inputs, defaultLanguageCode).orElse(null);
+		final LangNumberParser parser = languageCode == null ? null
+				: StringNumberParser.getLangNumberParser(languageCode, config, defaultLanguageCode).orElse(null);
+		return new ColumnConverter(languageCode, parser, config, defaultLanguageCode);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the output array is too short
+	 */
+	static void checkOutput(int size, int outLength) {
+		if(outLength < size) {
+			throw new IllegalArgumentException("Output array length " + outLength + " is less than the number of inputs " + size);
+		}
+	}
+
+	/**
+	 * @return number of bitmap words that hold the given number of bits
+	 */
+	static int words(int bits) {
+		return (bits + Long.SIZE - 1) >>> 6;
+	}
+
+	/**
+	 * Converts the given [from, to) range of the column. Every input is parsed by the column language parser, and only the inputs
+	 * it fails to convert are converted the way {@linkplain StringNumberParser#parseLong(CharSequence, ParserConfig, ParseResult, String...)} does.
+	 *
+	 * @param inputs       numbers in text form. <em>null</em> elements are failures
+	 * @param from         range start (inclusive)
+	 * @param to           range end (exclusive)
+	 * @param out          receives numeric form of <em>inputs[i]</em> at index <em>i</em>, or {@linkplain ParseResult#NO_VALUE}
+	 * @param failureWords bitmap that receives set bit <em>i</em> if <em>inputs[i]</em> cannot be converted. Only the bits of the range are touched,
+	 *                     but ranges converted concurrently must not share a word
+	 * @param result       reusable result holder
+	 * @return number of inputs of the range that couldn't be converted
+	 */
+	int convert(List<? extends CharSequence> inputs, int from, int to, long[] out, long[] failureWords, ParseResult result) {
+		final ParserMetrics metrics = Metrics.current();
+		int res = 0;
+		for(int i = from; i < to; i++) {
+			final CharSequence input = inputs.get(i);
+			long value = ParseResult.NO_VALUE;
+			boolean success = false;
+			if(input != null) {
+				if(parser != null) {
+					final long started = metrics == null ? 0L : System.nanoTime();
+					value = parser.parseLong(input, result);
+					success = result.isSuccess();
+					if(metrics != null && success) {
+						metrics.record(ParserMetrics.Operation.PARSE, languageCode, System.nanoTime() - started, true);
+					}
+				}
+				if(!success) {
+					value = StringNumberParser.parseLong(input, config, result, defaultLanguageCode);
+					success = result.isSuccess();
+				}
+			}
+			out[i] = value;
+			if(!success) {
+				failureWords[i >>> 6] |= 1L << i;
+				res++;
+			}
+		}
+		return res;
+	}
+
+	// The most frequent language among evenly spread sample of the inputs, or the default language if none is found.
+	// Number words are attributed by the parsers lexicons, which are exact even for a single word (e.g. "два"), unlike the common words
+	// dictionaries. The dictionaries vote only if no sampled input is converted, e.g. if the column language parser has no lexicon.
+	private static Optional<String> inferLanguage(List<? extends CharSequence> inputs, String[] defaultLanguageCode) {
+		final Map<String, Integer> votes = new HashMap<>();
+		final int size = inputs.size();
+		final int step = Math.max(1, size / StringNumberParser.BATCH_SAMPLE_SIZE);
+		final ParseResult result = new ParseResult();
+		for(int i = 0, sampled = 0; i < size && sampled < StringNumberParser.BATCH_SAMPLE_SIZE; i += step, sampled++) {
+			final CharSequence input = inputs.get(i);
+			if(input != null) {
+				Sampler.FUSED.parseLong(input, result);
+				if(result.isSuccess()) {
+					votes.merge(result.getLanguageCode(), 1, Integer::sum);
+				}
+			}
+		}
+		if(votes.isEmpty()) {
+			final LanguageDetector languageDetector = LanguageDetector.getLanguageDetector();
+			for(int i = 0, sampled = 0; i < size && sampled < StringNumberParser.BATCH_SAMPLE_SIZE; i += step, sampled++) {
+				final CharSequence input = inputs.get(i);
+				if(input != null) {
+					languageDetector.detectLanguage(input).ifPresent(languageCode -> votes.merge(languageCode, 1, Integer::sum));
+				}
+			}
+		}
+		final Optional<String> res = votes.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey);
+		if(res.isPresent() || defaultLanguageCode == null || defaultLanguageCode.length == 0) {
+			return res;
+		}
+		return Optional.of(defaultLanguageCode[0]);
+	}
+
+	// Lazy holder of the converter that attributes number phrases to languages when the language of a column is inferred.
+	private static final class Sampler {
+		private static final FusedNumberParser FUSED = StringNumberParser.fuse();
+	}
+}
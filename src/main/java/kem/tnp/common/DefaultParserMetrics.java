@@ -0,0 +1,302 @@
+package kem.tnp.common;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in {@linkplain ParserMetrics} implementation. For every operation and language it counts calls and failures and keeps
+ * a latency histogram. Counters are striped ({@linkplain LongAdder}), so concurrent updates don't contend.
+ * Unrecognized tokens are counted without locks as well. A tracked token is counted by its own {@linkplain LongAdder}, and a token that
+ * is not tracked yet is counted in a count-min sketch first. When the tracked tokens table is full, a new token is admitted only if
+ * its sketch count exceeds the smallest count kept by the last eviction, and it starts with its sketch count (which may over-estimate).
+ * The table grows to twice its capacity at most, then one thread evicts the least frequent tokens and halves the sketch,
+ * so tokens that stopped coming are eventually evicted too.
+ * Created on 18-Oct-26 at 9:05 AM.
+ */
+public final class DefaultParserMetrics implements ParserMetrics {
+	/**
+	 * Default number of distinct unrecognized tokens that are tracked.
+	 */
+	public static final int DEFAULT_TOKENS_CAPACITY = 256;
+
+	// Longer tokens are truncated, so a garbage input doesn't hold much memory.
+	private static final int MAX_TOKEN_LENGTH = 64;
+	// Rows of the count-min sketch and the hash multipliers of the rows.
+	private static final int[] SKETCH_SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+	// Lookup key of the tracked tokens, so a token that is already tracked is counted without creating a substring.
+	private static final ThreadLocal<CharSpan> SPAN = ThreadLocal.withInitial(CharSpan::new);
+
+	private final Map<Operation, ConcurrentMap<String, OperationStats>> stats = new EnumMap<>(Operation.class);
+	private final int tokensCapacity;
+	private final ConcurrentMap<String, LongAdder> tokens = new ConcurrentHashMap<>();
+	private final AtomicIntegerArray sketch;
+	private final int sketchMask;
+	// Smallest count kept by the last eviction: a new token should be more frequent to be admitted into a full table.
+	private volatile long admission;
+	private final AtomicBoolean evicting = new AtomicBoolean();
+	private volatile long startedAt = System.currentTimeMillis();
+
+	public DefaultParserMetrics() {
+		this(DEFAULT_TOKENS_CAPACITY);
+	}
+
+	/**
+	 * @param tokensCapacity number of distinct unrecognized tokens that are tracked
+	 */
+	public DefaultParserMetrics(int tokensCapacity) {
+		if(tokensCapacity <= 0) {
+			throw new IllegalArgumentException("Tokens capacity should be positive");
+		}
+		this.tokensCapacity = tokensCapacity;
+		// 8 counters per tracked token in a row, but at least 4K (so a small table doesn't mean a saturated sketch) and no more than 64K.
+		final int width = Integer.highestOneBit(Math.max(Math.min(tokensCapacity, 1 << 13), 1 << 9) * 8 - 1) << 1;
+		sketch = new AtomicIntegerArray(width * SKETCH_SEEDS.length);
+		sketchMask = width - 1;
+		for(Operation operation : Operation.values()) {
+			stats.put(operation, new ConcurrentHashMap<>());
+		}
+	}
+
+	@Override
+	public void record(Operation operation, String languageCode, long nanos, boolean success) {
+		final ConcurrentMap<String, OperationStats> byLanguage = stats.get(operation);
+		OperationStats res = byLanguage.get(languageCode);
+		if(res == null) {
+			res = byLanguage.computeIfAbsent(languageCode, k -> new OperationStats());
+		}
+		res.record(nanos, success);
+	}
+
+	@Override
+	public void unrecognizedToken(CharSequence input, int start, int end) {
+		final CharSpan span = SPAN.get().set(input, start, Math.min(end, start + MAX_TOKEN_LENGTH));
+		final LongAdder count = tokens.get(span);
+		if(count != null) {
+			count.increment();
+			return;
+		}
+		final long estimate = countInSketch(span.hashCode());
+		final int size = tokens.size();
+		if(size >= tokensCapacity && estimate <= admission) {
+			return;
+		}
+		if(size >= 2 * tokensCapacity) {
+			// Another thread is evicting, the token stays in the sketch meanwhile.
+			evict();
+			return;
+		}
+		final LongAdder added = new LongAdder();
+		added.add(estimate);
+		final LongAdder existing = tokens.putIfAbsent(span.toString(), added);
+		if(existing != null) {
+			existing.increment();
+		} else if(size + 1 >= 2 * tokensCapacity) {
+			evict();
+		}
+	}
+
+	// Increments the token counters of all the sketch rows and returns the smallest of them.
+	private long countInSketch(int hash) {
+		int res = Integer.MAX_VALUE;
+		for(int row = 0; row < SKETCH_SEEDS.length; row++) {
+			int h = hash * SKETCH_SEEDS[row];
+			h ^= h >>> 16;
+			res = Math.min(res, sketch.incrementAndGet(row * (sketchMask + 1) + (h & sketchMask)));
+		}
+		return res;
+	}
+
+	// Keeps the most frequent tokens only. If another thread is evicting already, this one doesn't wait.
+	private void evict() {
+		if(!evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			final List<Map.Entry<String, Long>> counts = snapshot();
+			if(counts.size() > tokensCapacity) {
+				for(Map.Entry<String, Long> entry : counts.subList(tokensCapacity, counts.size())) {
+					tokens.remove(entry.getKey());
+				}
+				admission = counts.get(tokensCapacity - 1).getValue();
+			}
+			for(int i = 0; i < sketch.length(); i++) {
+				sketch.set(i, sketch.get(i) >>> 1);
+			}
+		} finally {
+			evicting.set(false);
+		}
+	}
+
+	// Tracked tokens with their counts, the most frequent first.
+	private List<Map.Entry<String, Long>> snapshot() {
+		final List<Map.Entry<String, Long>> res = new ArrayList<>(tokens.size());
+		tokens.forEach((token, count) -> res.add(new AbstractMap.SimpleImmutableEntry<>(token, count.sum())));
+		res.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+		return res;
+	}
+
+	/**
+	 * @param operation an operation
+	 * @return language code -> statistics of the given operation. Operations not bound to a language are reported with {@linkplain #NO_LANGUAGE}
+	 */
+	public Map<String, OperationStats> getStats(Operation operation) {
+		return Collections.unmodifiableMap(stats.get(operation));
+	}
+
+	/**
+	 * @param k number of tokens to return
+	 * @return at most <em>k</em> most frequent unrecognized tokens with their (approximate) counts, the most frequent first
+	 */
+	public List<Tuple2<String, Long>> getTopUnrecognizedTokens(int k) {
+		final List<Map.Entry<String, Long>> counts = snapshot();
+		final List<Tuple2<String, Long>> res = new ArrayList<>();
+		for(Map.Entry<String, Long> entry : counts.subList(0, Math.min(Math.min(k, tokensCapacity), counts.size()))) {
+			res.add(Tuple2.of(entry.getKey(), entry.getValue()));
+		}
+		return res;
+	}
+
+	/**
+	 * @return time the counters were started (or {@linkplain #reset()}) at, in milliseconds since the epoch
+	 */
+	public long getStartedAt() {
+		return startedAt;
+	}
+
+	/**
+	 * Resets all counters.
+	 */
+	public void reset() {
+		startedAt = System.currentTimeMillis();
+		stats.values().forEach(Map::clear);
+		tokens.clear();
+		for(int i = 0; i < sketch.length(); i++) {
+			sketch.set(i, 0);
+		}
+		admission = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "DefaultParserMetrics" + stats;
+	}
+
+	/**
+	 * Statistics of an operation in a language.
+	 */
+	public static final class OperationStats {
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		OperationStats() {
+		}
+
+		void record(long nanos, boolean success) {
+			calls.increment();
+			if(!success) {
+				failures.increment();
+			}
+			latency.record(nanos);
+		}
+
+		public long getCalls() {
+			return calls.sum();
+		}
+
+		public long getFailures() {
+			return failures.sum();
+		}
+
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		@Override
+		public String toString() {
+			return "[calls=" + getCalls() + ", failures=" + getFailures() + ", p50=" + latency.percentileNanos(0.5) +
+					" ns, p99=" + latency.percentileNanos(0.99) + " ns]";
+		}
+	}
+
+	/**
+	 * Latency histogram with fixed log-scale buckets: bucket <em>i</em> counts durations in [2<sup>i</sup>, 2<sup>i+1</sup>) nanoseconds
+	 * (bucket 0 also counts zero durations). So the relative error of a percentile is at most 2x, whatever the latency is, and
+	 * recording takes a couple of instructions and no allocation.
+	 */
+	public static final class LatencyHistogram {
+		private final LongAdder[] buckets = new LongAdder[Long.SIZE - 1];
+
+		LatencyHistogram() {
+			for(int i = 0; i < buckets.length; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+
+		void record(long nanos) {
+			buckets[bucket(nanos)].increment();
+		}
+
+		/**
+		 * @return number of recorded durations
+		 */
+		public long count() {
+			long res = 0;
+			for(LongAdder bucket : buckets) {
+				res += bucket.sum();
+			}
+			return res;
+		}
+
+		/**
+		 * @return snapshot of the bucket counts, bucket <em>i</em> counts durations in [2<sup>i</sup>, 2<sup>i+1</sup>) nanoseconds
+		 */
+		public long[] buckets() {
+			final long[] res = new long[buckets.length];
+			for(int i = 0; i < res.length; i++) {
+				res[i] = buckets[i].sum();
+			}
+			return res;
+		}
+
+		/**
+		 * @param quantile quantile in [0, 1] range, e.g. 0.99
+		 * @return upper bound of the bucket the given quantile falls in, in nanoseconds, or 0 if nothing is recorded
+		 */
+		public long percentileNanos(double quantile) {
+			if(quantile < 0 || quantile > 1) {
+				throw new IllegalArgumentException("Quantile " + quantile + " is out of [0, 1] range");
+			}
+			final long[] counts = buckets();
+			long total = 0;
+			for(long count : counts) {
+				total += count;
+			}
+			if(total == 0) {
+				return 0;
+			}
+			final long rank = Math.max(1, (long) Math.ceil(quantile * total));
+			long seen = 0;
+			for(int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if(seen >= rank) {
+					return (1L << (i + 1)) - 1;
+				}
+			}
+			return Long.MAX_VALUE;
+		}
+
+		private static int bucket(long nanos) {
+			return nanos <= 1 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package kem.tnp.common;
+
+/**
+ * Event of {@linkplain LanguageDetector#detectLanguages(CharSequence)} call, recorded as <code>kem.tnp.DetectLanguages</code> JFR event.
+ * The language is the most probable one.
+ * Created on 18-Oct-26 at 11:40 AM.
+ */
+final class DetectLanguagesEvent extends ParserEvent {
+	static final String NAME = "kem.tnp.DetectLanguages";
+
+	// The result was taken from the detector cache
+	boolean cached;
+	// Number of detected languages
+	int candidates;
+	long normalizeNanos;
+	long scanNanos;
+
+	DetectLanguagesEvent() {
+		super(RECORDINGS == null ? null : RECORDINGS.detectLanguages());
+	}
+}
@@ -0,0 +1,66 @@
+package kem.tnp.common;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles text language dictionaries ("en.dict", "ru.dict" etc) into the binary index that {@linkplain LanguageDetector} loads at startup.
+ * It is run by the <code>compileDictionaries</code> build task:
+ * <pre>{@code
+ * java kem.tnp.common.DictionaryCompiler src/main/resources/dict build/generated/dict-index/dict/languages.idx
+ * }</pre>
+ * Created on 18-Oct-26 at 6:55 AM.
+ */
+public final class DictionaryCompiler {
+	private static final String DICT_EXTENSION = ".dict";
+
+	private DictionaryCompiler() {
+	}
+
+	/**
+	 * @param args directory of the text dictionaries and the index file to write
+	 * @throws IOException if a dictionary cannot be read or the index cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length != 2) {
+			throw new IllegalArgumentException("Usage: DictionaryCompiler <dictionaries directory> <index file>");
+		}
+		final File index = new File(args[1]);
+		final File parent = index.getAbsoluteFile().getParentFile();
+		if(!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Could not create directory " + parent);
+		}
+		try(OutputStream out = new BufferedOutputStream(new FileOutputStream(index))) {
+			compile(new File(args[0])).write(out);
+		}
+	}
+
+	/**
+	 * Reads all the text dictionaries of the given directory.
+	 *
+	 * @param directory directory of the text dictionaries
+	 * @return index of the dictionaries
+	 * @throws IOException if the directory or a dictionary cannot be read
+	 */
+	static DictionaryIndex compile(File directory) throws IOException {
+		final File[] files = directory.listFiles((dir, name) -> name.endsWith(DICT_EXTENSION));
+		if(files == null) {
+			throw new IOException("Could not read directory " + directory);
+		}
+		Arrays.sort(files);
+		final List<DictionaryIndex.Dictionary> dictionaries = new ArrayList<>(files.length);
+		for(File file : files) {
+			final String language = file.getName().substring(0, file.getName().length() - DICT_EXTENSION.length()); // en.dict -> en
+			dictionaries.add(DictionaryIndex.Dictionary.parse(language, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)));
+		}
+		return DictionaryIndex.of(dictionaries);
+	}
+}
@@ -0,0 +1,326 @@
+package kem.tnp.common;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * All language dictionaries merged into a single word table: word -> mask of the languages whose dictionaries contain this word.
+ * Language <em>i</em> corresponds to bit <em>1L &lt;&lt; i</em>.<p/>
+ * The table is an open-addressing hash layout over a pool of characters, so it consists of a few primitive arrays only.
+ * It is {@linkplain DictionaryCompiler compiled} at build time and {@linkplain #read(InputStream) read} as a single classpath stream,
+ * which takes a bulk copy of the arrays: no per-word strings are created and no words are hashed at startup.<p/>
+ * Binary layout (big-endian):
+ * <pre>
+ * int      magic "TNPD", int version
+ * int      languages count, then per language: UTF code, int scripts mask, int words count
+ * int      words count W, int pool length P, int slots count S (power of 2)
+ * int[W+1] word offsets in the pool
+ * char[P]  pool of the lower-cased words, sorted
+ * long[W]  languages masks
+ * int[S]   slots: word number + 1, or 0 if the slot is free
+ * </pre>
+ * Created on 18-Oct-26 at 6:40 AM.
+ */
+final class DictionaryIndex {
+	/**
+	 * Classpath location of the compiled index.
+	 */
+	static final String RESOURCE = "dict/languages.idx";
+
+	private static final int MAGIC = 0x544E5044; // "TNPD"
+	private static final int VERSION = 1;
+	// Maximal number of dictionaries: languages are identified by bits of a long mask.
+	private static final int MAX_LANGUAGES = Long.SIZE;
+	private static final String SCRIPTS_HEADER = "#scripts=";
+
+	final String[] languages;
+	final int[] sizes;
+	// Script ordinal -> mask of the languages written in this script.
+	final long[] scriptLanguages;
+	private final int[] scripts;
+	private final int[] offsets;
+	private final char[] pool;
+	private final long[] masks;
+	private final int[] slots;
+
+	private DictionaryIndex(String[] languages, int[] scripts, int[] sizes, int[] offsets, char[] pool, long[] masks, int[] slots) {
+		this.languages = languages;
+		this.scripts = scripts;
+		this.sizes = sizes;
+		this.offsets = offsets;
+		this.pool = pool;
+		this.masks = masks;
+		this.slots = slots;
+		this.scriptLanguages = new long[Script.values().length];
+		for(int lang = 0; lang < languages.length; lang++) {
+			for(Script script : Script.values()) {
+				if((scripts[lang] & script.mask()) != 0) {
+					scriptLanguages[script.ordinal()] |= 1L << lang;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Language dictionary: most common words of a language and the scripts they are written in.
+	 */
+	static final class Dictionary {
+		final String language;
+		final int scripts;
+		final TreeSet<String> words;
+
+		Dictionary(String language, int scripts, TreeSet<String> words) {
+			this.language = language;
+			this.scripts = scripts;
+			this.words = words;
+		}
+
+		/**
+		 * Parses text dictionary. Its lines are the most common words in the language. The words are lower-cased.
+		 * Header lines start with "#". The header declares the scripts the language is written in, e.g. "#scripts=CYRILLIC".
+		 * If there is no such declaration, the scripts are inferred from the words.
+		 *
+		 * @param language language code, e.g. "en"
+		 * @param lines    dictionary lines
+		 * @return language dictionary
+		 */
+		static Dictionary parse(String language, List<String> lines) {
+			final TreeSet<String> words = new TreeSet<>();
+			int scripts = 0;
+			for(String line : lines) {
+				if(line.startsWith(SCRIPTS_HEADER)) {
+					scripts |= Script.parse(line.substring(SCRIPTS_HEADER.length()));
+				} else if(!line.startsWith("#") && !line.isEmpty()) {
+					words.add(lowerCase(line));
+				}
+			}
+			if(scripts == 0) {
+				for(String word : words) {
+					scripts |= Script.scan(word, 0, word.length());
+				}
+			}
+			return new Dictionary(language, scripts, words);
+		}
+
+		// Lower-cased char by char, exactly as the detector lower-cases the input words, so capitalized words (e.g. "Siete") match too.
+		private static String lowerCase(String word) {
+			final StringBuilder res = new StringBuilder(word.length());
+			for(int i = 0; i < word.length(); i++) {
+				res.append(Character.toLowerCase(word.charAt(i)));
+			}
+			return res.toString();
+		}
+	}
+
+	/**
+	 * Builds index of the given dictionaries. Languages are ordered by code.
+	 *
+	 * @param dictionaries language dictionaries
+	 * @return new index
+	 * @throws IllegalStateException if there are more than 64 dictionaries
+	 */
+	static DictionaryIndex of(List<Dictionary> dictionaries) {
+		if(dictionaries.size() > MAX_LANGUAGES) {
+			throw new IllegalStateException("Too many dictionaries: " + dictionaries.size() + ", at most " + MAX_LANGUAGES + " are supported");
+		}
+		final List<Dictionary> sorted = new ArrayList<>(dictionaries);
+		sorted.sort(Comparator.comparing(dict -> dict.language));
+		final String[] languages = new String[sorted.size()];
+		final int[] scripts = new int[sorted.size()];
+		final int[] sizes = new int[sorted.size()];
+		final TreeMap<String, Long> words = new TreeMap<>();
+		for(int lang = 0; lang < sorted.size(); lang++) {
+			final Dictionary dict = sorted.get(lang);
+			languages[lang] = dict.language;
+			scripts[lang] = dict.scripts;
+			sizes[lang] = dict.words.size();
+			final long bit = 1L << lang;
+			dict.words.forEach(word -> words.merge(word, bit, (a, b) -> a | b));
+		}
+		final int[] offsets = new int[words.size() + 1];
+		final long[] masks = new long[words.size()];
+		final StringBuilder pool = new StringBuilder();
+		// At most half of the slots are taken, so probe sequences stay short.
+		final int[] slots = new int[Math.max(2, Integer.highestOneBit(Math.max(1, words.size())) << 2)];
+		int n = 0;
+		for(Map.Entry<String, Long> word : words.entrySet()) {
+			offsets[n] = pool.length();
+			masks[n] = word.getValue();
+			pool.append(word.getKey());
+			int slot = slot(word.getKey().hashCode(), slots.length);
+			while(slots[slot] != 0) {
+				slot = (slot + 1) & (slots.length - 1);
+			}
+			slots[slot] = ++n;
+		}
+		offsets[n] = pool.length();
+		final char[] chars = new char[pool.length()];
+		pool.getChars(0, chars.length, chars, 0);
+		return new DictionaryIndex(languages, scripts, sizes, offsets, chars, masks, slots);
+	}
+
+	/**
+	 * Looks up the given [start, end) word of the input. The word is expected to be lower-cased.
+	 *
+	 * @param input input text
+	 * @param start word start offset (inclusive)
+	 * @param end   word end offset (exclusive)
+	 * @return mask of the languages whose dictionaries contain the word or 0 if the word is unknown
+	 */
+	long lookup(CharSequence input, int start, int end) {
+		int hash = 0;
+		for(int i = start; i < end; i++) {
+			hash = 31 * hash + input.charAt(i);
+		}
+		for(int slot = slot(hash, slots.length); slots[slot] != 0; slot = (slot + 1) & (slots.length - 1)) {
+			final int word = slots[slot] - 1;
+			if(matches(word, input, start, end)) {
+				return masks[word];
+			}
+		}
+		return 0L;
+	}
+
+	/**
+	 * @param scripts mask of scripts
+	 * @return mask of the languages written in any of the given scripts
+	 */
+	long languagesOf(int scripts) {
+		long res = 0;
+		for(int s = 0; s < scriptLanguages.length; s++) {
+			if((scripts & (1 << s)) != 0) {
+				res |= scriptLanguages[s];
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Writes this index in the binary layout.
+	 *
+	 * @param out output stream. It is not closed
+	 * @throws IOException if an I/O error occurs
+	 */
+	void write(OutputStream out) throws IOException {
+		final DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(languages.length);
+		for(int lang = 0; lang < languages.length; lang++) {
+			data.writeUTF(languages[lang]);
+			data.writeInt(scripts[lang]);
+			data.writeInt(sizes[lang]);
+		}
+		data.writeInt(masks.length);
+		data.writeInt(pool.length);
+		data.writeInt(slots.length);
+		for(int offset : offsets) {
+			data.writeInt(offset);
+		}
+		for(char c : pool) {
+			data.writeChar(c);
+		}
+		for(long mask : masks) {
+			data.writeLong(mask);
+		}
+		for(int slot : slots) {
+			data.writeInt(slot);
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads index in the binary layout.
+	 *
+	 * @param in input stream. It is not closed
+	 * @return the index
+	 * @throws IOException if an I/O error occurs or the stream is not a dictionary index
+	 */
+	static DictionaryIndex read(InputStream in) throws IOException {
+		return read(ByteBuffer.wrap(readFully(in)));
+	}
+
+	/**
+	 * Reads index in the binary layout, e.g. from a memory-mapped file.
+	 *
+	 * @param buffer buffer positioned at the index start
+	 * @return the index
+	 * @throws IOException if the buffer doesn't contain a dictionary index
+	 */
+	static DictionaryIndex read(ByteBuffer buffer) throws IOException {
+		try {
+			if(buffer.getInt() != MAGIC) {
+				throw new IOException("Not a dictionary index");
+			}
+			final int version = buffer.getInt();
+			if(version != VERSION) {
+				throw new IOException("Unsupported dictionary index version " + version);
+			}
+			final int languagesCount = buffer.getInt();
+			final String[] languages = new String[languagesCount];
+			final int[] scripts = new int[languagesCount];
+			final int[] sizes = new int[languagesCount];
+			for(int lang = 0; lang < languagesCount; lang++) {
+				final byte[] code = new byte[buffer.getShort() & 0xFFFF];
+				buffer.get(code);
+				languages[lang] = new String(code, StandardCharsets.UTF_8); // codes are ASCII, so modified UTF-8 is plain UTF-8
+				scripts[lang] = buffer.getInt();
+				sizes[lang] = buffer.getInt();
+			}
+			final int[] offsets = new int[buffer.getInt() + 1];
+			final char[] pool = new char[buffer.getInt()];
+			final int[] slots = new int[buffer.getInt()];
+			final long[] masks = new long[offsets.length - 1];
+			buffer.asIntBuffer().get(offsets);
+			buffer.position(buffer.position() + offsets.length * Integer.BYTES);
+			buffer.asCharBuffer().get(pool);
+			buffer.position(buffer.position() + pool.length * Character.BYTES);
+			buffer.asLongBuffer().get(masks);
+			buffer.position(buffer.position() + masks.length * Long.BYTES);
+			buffer.asIntBuffer().get(slots);
+			return new DictionaryIndex(languages, scripts, sizes, offsets, pool, masks, slots);
+		} catch(RuntimeException e) { // BufferUnderflowException, NegativeArraySizeException
+			throw new IOException("Corrupted dictionary index", e);
+		}
+	}
+
+	private boolean matches(int word, CharSequence input, int start, int end) {
+		final int from = offsets[word];
+		if(offsets[word + 1] - from != end - start) {
+			return false;
+		}
+		for(int i = 0; i < end - start; i++) {
+			if(pool[from + i] != input.charAt(start + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int slot(int hash, int slotsCount) {
+		return (hash ^ (hash >>> 16)) & (slotsCount - 1);
+	}
+
+	private static byte[] readFully(InputStream in) throws IOException {
+		byte[] buffer = new byte[64 * 1024];
+		int length = 0;
+		for(int read; (read = in.read(buffer, length, buffer.length - length)) >= 0; ) {
+			length += read;
+			if(length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+		return Arrays.copyOf(buffer, length);
+	}
+}
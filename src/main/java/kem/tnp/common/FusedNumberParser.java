@@ -0,0 +1,251 @@
+package kem.tnp.common;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Text to number converter that detects the input language and parses the input in a single pass.
+ * Instead of running {@linkplain LanguageDetector} against the common-words dictionaries and then parsing the input again,
+ * the input is tokenized once and every token is fed to the FSMs of all the candidate languages side by side.
+ * A language drops out as soon as its FSM fails, the value of the surviving language is returned.
+ * Number words are a closed class that the parsers lexicons cover completely, so even a single-word input is attributed correctly.<p/>
+ * Candidates are the languages whose {@linkplain LangNumberParser#lexicon() lexicons} share a {@linkplain Script script} with the input.
+ * If several languages convert the input, the one that succeeded most often recently wins: candidate order adapts to the hit rates.
+ * Parsers without a lexicon are tried one by one, after the fused pass fails.<p/>
+ * An instance is thread-safe.
+ * <pre>{@code
+ * FusedNumberParser parser = StringNumberParser.fuse();
+ * long n = parser.parseLong("пять тысяч", result); // result.getLanguageCode() is "ru"
+ * }</pre>
+ * Created on 18-Oct-26 at 5:45 AM.
+ *
+ * @see StringNumberParser#fuse(ParserConfig, String...)
+ */
+public final class FusedNumberParser {
+	// Candidate order is recalculated every so many hits of a thread.
+	private static final int REORDER_PERIOD = 1024;
+
+	// Candidates, indexed by candidate id.
+	private final String[] languageCodes;
+	private final LangNumberParser[] parsers;
+	private final Lexicon[] lexicons; // null for parsers without lexicon
+	// Guarded by this. Every thread counts its hits on its own and adds them here when the candidates are reordered.
+	private final long[] hits;
+	private final ThreadLocal<Worker> workers;
+	// Candidate ids, the most successful first.
+	private volatile int[] order;
+
+	FusedNumberParser(String[] languageCodes, LangNumberParser[] parsers) {
+		if(languageCodes.length > Long.SIZE) {
+			throw new IllegalArgumentException("Too many languages: " + languageCodes.length + ", at most " + Long.SIZE + " are supported");
+		}
+		this.languageCodes = languageCodes;
+		this.parsers = parsers;
+		this.lexicons = new Lexicon[parsers.length];
+		for(int id = 0; id < parsers.length; id++) {
+			lexicons[id] = parsers[id].lexicon();
+		}
+		this.hits = new long[parsers.length];
+		this.workers = ThreadLocal.withInitial(() -> new Worker(lexicons.length));
+		final int[] order = new int[parsers.length];
+		for(int id = 0; id < order.length; id++) {
+			order[id] = id;
+		}
+		this.order = order;
+	}
+
+	/**
+	 * @return codes of the candidate languages, the most successful first
+	 */
+	public List<String> getLanguageCodes() {
+		final List<String> res = new ArrayList<>(languageCodes.length);
+		for(int id : order) {
+			res.add(languageCodes[id]);
+		}
+		return Collections.unmodifiableList(res);
+	}
+
+	/**
+	 * Converts the given text input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246
+	 *
+	 * @param input number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @return numeric form of the given input, e.g. 14246
+	 * @throws LanguageException          if none of the candidate languages is written in the input script
+	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value in any of the candidate languages
+	 */
+	public Long textToNumber(@NotNull String input) throws LanguageException, UnrecognizedTokenException {
+		final ParseResult result = new ParseResult();
+		final long res = parseLong(input, 0, input.length(), result);
+		if(result.getStatus() == ParseResult.Status.UNSUPPORTED_LANGUAGE) {
+			throw new LanguageException(result.errorMessage(input));
+		}
+		if(!result.isSuccess()) {
+			throw new UnrecognizedTokenException(result.errorMessage(input));
+		}
+		return res;
+	}
+
+	/**
+	 * Converts the given text input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246 without boxing and
+	 * without throwing on invalid input.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param result reusable result holder that receives the conversion status, the offending token offsets and the language code
+	 * @return numeric form of the given input or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 * @see #parseLong(CharSequence, int, int, ParseResult)
+	 */
+	public long parseLong(@NotNull CharSequence input, @NotNull ParseResult result) {
+		return parseLong(input, 0, input.length(), result);
+	}
+
+	/**
+	 * Converts the given [start, end) range of the input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246
+	 * without boxing and without throwing on invalid input.
+	 * If none of the candidate languages converts the input, the result describes the failure of the language that got the furthest.
+	 * In lenient mode the language that skipped the fewest tokens wins.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param start  range start offset (inclusive)
+	 * @param end    range end offset (exclusive)
+	 * @param result reusable result holder that receives the conversion status, the offending token offsets and the language code
+	 * @return numeric form of the given input range or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 * @throws IndexOutOfBoundsException if the given range lies outside the input
+	 */
+	public long parseLong(@NotNull CharSequence input, int start, int end, @NotNull ParseResult result) {
+		Tokenizer.checkRange(input, start, end);
+		result.reset();
+		final boolean lenient = result.isLenient();
+		final int[] order = this.order;
+		final Worker worker = workers.get();
+		final NumberFsm[] fsms = worker.fsms;
+		final int scripts = Script.scan(input, start, end);
+		long candidates = 0;
+		for(int id = 0; id < lexicons.length; id++) {
+			if(lexicons[id] != null && (scripts == 0 || (lexicons[id].scripts() & scripts) != 0)) {
+				fsms[id].reset();
+				candidates |= 1L << id;
+			}
+		}
+		// Single pass over the whitespace-delimited tokens. A language may split a token further, e.g. English "twenty-four".
+		long alive = candidates;
+		for(int tokenStart = Tokenizer.tokenStart(input, start, end), tokenEnd; tokenStart < end && alive != 0; tokenStart = Tokenizer.tokenStart(input, tokenEnd, end)) {
+			tokenEnd = Tokenizer.tokenEnd(input, tokenStart, end);
+			for(int id : order) {
+				if((alive & (1L << id)) != 0 && !advance(fsms[id], lexicons[id], input, tokenStart, tokenEnd, lenient)) {
+					alive &= ~(1L << id);
+				}
+			}
+		}
+		int winner = -1, furthest = -1;
+		for(int id : order) {
+			if((candidates & (1L << id)) == 0) {
+				continue;
+			}
+			final NumberFsm fsm = fsms[id];
+			if(fsm.end(start)) {
+				if(winner < 0 || fsm.getSkippedTokens() < fsms[winner].getSkippedTokens()) {
+					winner = id;
+				}
+			} else if(furthest < 0 || fsm.getErrorStart() > fsms[furthest].getErrorStart()) {
+				furthest = id;
+			}
+		}
+		if(winner >= 0) {
+			hit(worker, winner);
+			result.setLanguageCode(languageCodes[winner]);
+			return fsms[winner].writeTo(result);
+		}
+		// Parsers without lexicon are called on their own.
+		boolean tried = false;
+		for(int id : order) {
+			if(lexicons[id] == null) {
+				final long res = parsers[id].parseLong(input, start, end, result);
+				if(result.isSuccess()) {
+					hit(worker, id);
+					result.setLanguageCode(languageCodes[id]);
+					return res;
+				}
+				tried = true;
+			}
+		}
+		if(furthest >= 0) {
+			result.setLanguageCode(languageCodes[furthest]);
+			return fsms[furthest].writeTo(result);
+		}
+		return tried ? ParseResult.NO_VALUE : result.failure(ParseResult.Status.UNSUPPORTED_LANGUAGE, -1, -1);
+	}
+
+	@Override
+	public String toString() {
+		return "FusedNumberParser" + getLanguageCodes();
+	}
+
+	private static boolean advance(NumberFsm fsm, Lexicon lexicon, CharSequence input, int start, int end, boolean lenient) {
+		final IntPredicate delimiters = lexicon.delimiters();
+		for(int tokenStart = Tokenizer.tokenStart(input, start, end, delimiters), tokenEnd; tokenStart < end; tokenStart = Tokenizer.tokenStart(input, tokenEnd, end, delimiters)) {
+			tokenEnd = Tokenizer.tokenEnd(input, tokenStart, end, delimiters);
+			if(!fsm.accept(lexicon.lookup(input, tokenStart, tokenEnd), tokenStart, tokenEnd, lenient)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Nothing shared is written on a hit, so parsing threads don't contend for the counters.
+	private void hit(Worker worker, int id) {
+		worker.hits[id]++;
+		if(++worker.calls == REORDER_PERIOD) {
+			worker.calls = 0;
+			reorder(worker.hits);
+		}
+	}
+
+	/**
+	 * Adds the given hit counts of a thread, sorts the candidates by their hit counts and halves the counts,
+	 * so the order follows the recent traffic.
+	 *
+	 * @param pending hit counts of a thread since its previous reordering. They are reset
+	 */
+	private synchronized void reorder(int[] pending) {
+		final long[] snapshot = new long[hits.length];
+		final Integer[] ids = new Integer[snapshot.length];
+		for(int id = 0; id < snapshot.length; id++) {
+			snapshot[id] = hits[id] + pending[id];
+			pending[id] = 0;
+			hits[id] = snapshot[id] >> 1;
+			ids[id] = id;
+		}
+		// Stable sort: candidates with equal hit counts keep their current relative order.
+		final int[] current = order;
+		final int[] rank = new int[current.length];
+		for(int i = 0; i < current.length; i++) {
+			rank[current[i]] = i;
+		}
+		Arrays.sort(ids, Comparator.<Integer>comparingLong(id -> -snapshot[id]).thenComparingInt(id -> rank[id]));
+		final int[] res = new int[ids.length];
+		for(int i = 0; i < ids.length; i++) {
+			res[i] = ids[i];
+		}
+		order = res;
+	}
+
+	// Per-thread state: conversion is not reentrant, so one set of FSMs per thread is enough.
+	private static final class Worker {
+		final NumberFsm[] fsms;
+		final int[] hits;
+		int calls;
+
+		Worker(int candidates) {
+			fsms = new NumberFsm[candidates];
+			for(int id = 0; id < candidates; id++) {
+				fsms[id] = new NumberFsm();
+			}
+			hits = new int[candidates];
+		}
+	}
+}
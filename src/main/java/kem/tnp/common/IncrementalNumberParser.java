@@ -0,0 +1,169 @@
+package kem.tnp.common;
+
+import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Text to number converter that is fed one token at a time, e.g. by a speech recognizer that produces words one by one.
+ * It keeps the parsing FSM state and the accumulated value between the calls, so every token costs a single lexicon lookup and
+ * FSM step, rather than a parse of the whole phrase so far.<p/>
+ * When a token cannot continue the current number, the number is finished: its value is available through
+ * {@linkplain #finishedValue(int)}, and the token starts a new number (or is rejected, if it cannot start one either).
+ * A joined token, e.g. "five-six" after "seven", may finish several numbers.
+ * <pre>{@code
+ * IncrementalNumberParser parser = StringNumberParser.incremental("en");
+ * for(String word : words) {
+ *     parser.accept(word);
+ *     for(int i = 0; i < parser.getFinishedCount(); i++) {
+ *         emit(parser.finishedValue(i));
+ *     }
+ * }
+ * if(parser.isComplete()) {
+ *     emit(parser.currentValue());
+ * }
+ * }</pre>
+ * An instance is not thread-safe and is meant to be {@linkplain #reset() reset} and reused.
+ * Created on 18-Oct-26 at 3:40 PM.
+ *
+ * @see StringNumberParser#incremental(ParserConfig, String)
+ */
+public final class IncrementalNumberParser {
+	private final String languageCode;
+	private final Lexicon lexicon;
+	private final NumberFsm fsm = new NumberFsm();
+	private boolean started;
+	// Values of the complete numbers the last token has finished
+	private long[] finished = new long[2];
+	private int finishedCount;
+	private int tokens; // Number of accepted words, serves as the word offset for the FSM
+
+	IncrementalNumberParser(String languageCode, Lexicon lexicon) {
+		this.languageCode = languageCode;
+		this.lexicon = lexicon;
+	}
+
+	/**
+	 * What a token has done to the current number.
+	 */
+	public enum Outcome {
+		/**
+		 * The token continues the current number, e.g. "five" after "twenty". Conjunctions ("and") and articles ("a") continue
+		 * a number, though they don't make it {@linkplain #isComplete() complete} by themselves.
+		 */
+		CONTINUES,
+		/**
+		 * The token cannot continue the current number (if there is one), so it starts a new number, e.g. "six" after "five".
+		 */
+		STARTS_NEW,
+		/**
+		 * The token is not a number word or cannot start a number, e.g. "dollars" or "and". There is no current number after it.
+		 */
+		REJECTED
+	}
+
+	/**
+	 * Feeds the next token. A token is a word; words joined by the language joiners, e.g. "twenty-five", are fed one by one, and
+	 * the outcome of the last word that doesn't continue the number is returned.
+	 *
+	 * @param token next token
+	 * @return what the token has done to the current number
+	 */
+	public Outcome accept(@NotNull CharSequence token) {
+		final int end = token.length();
+		final IntPredicate delimiters = lexicon.delimiters();
+		finishedCount = 0;
+		Outcome res = null;
+		for(int s = Tokenizer.tokenStart(token, 0, end, delimiters), e; s < end; s = Tokenizer.tokenStart(token, e, end, delimiters)) {
+			e = Tokenizer.tokenEnd(token, s, end, delimiters);
+			final Outcome outcome = acceptWord(lexicon.lookup(token, s, e));
+			if(res == null || outcome != Outcome.CONTINUES) {
+				res = outcome;
+			}
+		}
+		if(res == null) {
+			// Blank token
+			return started ? Outcome.CONTINUES : Outcome.REJECTED;
+		}
+		return res;
+	}
+
+	private Outcome acceptWord(Utils.StateWithNumber event) {
+		final int offset = tokens++;
+		if(started) {
+			final boolean complete = fsm.isComplete();
+			final long value = fsm.value();
+			if(fsm.accept(event, offset, offset + 1, false)) {
+				return Outcome.CONTINUES;
+			}
+			if(complete) {
+				if(finishedCount == finished.length) {
+					finished = Arrays.copyOf(finished, finishedCount * 2);
+				}
+				finished[finishedCount++] = value;
+			}
+		}
+		started = fsm.reset().accept(event, offset, offset + 1, false);
+		return started ? Outcome.STARTS_NEW : Outcome.REJECTED;
+	}
+
+	/**
+	 * @return <em>true</em> if the tokens of the current number make a number by themselves, e.g. "twenty five", but not "a"
+	 */
+	public boolean isComplete() {
+		return started && fsm.isComplete();
+	}
+
+	/**
+	 * @return value of the current number or {@linkplain ParseResult#NO_VALUE} if it is not {@linkplain #isComplete() complete}
+	 */
+	public long currentValue() {
+		return isComplete() ? fsm.value() : ParseResult.NO_VALUE;
+	}
+
+	/**
+	 * @return number of complete numbers the last {@linkplain #accept(CharSequence) accepted} token has finished.
+	 * It is 0 or 1, unless the token consists of several words
+	 */
+	public int getFinishedCount() {
+		return finishedCount;
+	}
+
+	/**
+	 * @param index index of a finished number in [0, {@linkplain #getFinishedCount()}) range, in the order the numbers appear
+	 * @return value of the finished number
+	 */
+	public long finishedValue(int index) {
+		if(index < 0 || index >= finishedCount) {
+			throw new IndexOutOfBoundsException("Index " + index + " is out of [0, " + finishedCount + ") range");
+		}
+		return finished[index];
+	}
+
+	/**
+	 * @return value of the first complete number the last {@linkplain #accept(CharSequence) accepted} token has finished, or
+	 * {@linkplain ParseResult#NO_VALUE} if the token has not finished a complete number
+	 */
+	public long finishedValue() {
+		return finishedCount > 0 ? finished[0] : ParseResult.NO_VALUE;
+	}
+
+	/**
+	 * Drops the current number, e.g. at the end of an utterance.
+	 */
+	public void reset() {
+		fsm.reset();
+		started = false;
+		finishedCount = 0;
+		tokens = 0;
+	}
+
+	public String getLanguageCode() {
+		return languageCode;
+	}
+
+	@Override
+	public String toString() {
+		return "IncrementalNumberParser[" + languageCode + ", value=" + currentValue() + "]";
+	}
+}
@@ -1,6 +1,8 @@
 package kem.tnp.common;
 
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
 
 /**
@@ -18,6 +20,69 @@ public interface LangNumberParser {
 	 */
 	Long stringToNumber(String input);
 
+	/**
+	 * Converts the given [start, end) range of the input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246<p/>
+	 * This implementation copies the range to a new string and calls {@linkplain #stringToNumber(String)}.
+	 * Implementations are encouraged to parse the range in place.
+	 *
+	 * @param input number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param start range start offset (inclusive)
+	 * @param end   range end offset (exclusive)
+	 * @return numeric form of the given input range
+	 */
+	default Long stringToNumber(CharSequence input, int start, int end) {
+		return stringToNumber(input.subSequence(start, end).toString());
+	}
+
+	/**
+	 * Converts the given input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246 without boxing and
+	 * without throwing on invalid input.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param result reusable result holder that receives the conversion status and the offending token offsets
+	 * @return numeric form of the given input or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 * @see #parseLong(CharSequence, int, int, ParseResult)
+	 */
+	default long parseLong(CharSequence input, ParseResult result) {
+		return parseLong(input, 0, input.length(), result);
+	}
+
+	/**
+	 * Converts the given [start, end) range of the input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246
+	 * without boxing and without throwing on invalid input.<p/>
+	 * This implementation calls {@linkplain #stringToNumber(CharSequence, int, int)} and translates its exceptions,
+	 * so it is neither cheaper nor lenient. Implementations are encouraged to override it.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param start  range start offset (inclusive)
+	 * @param end    range end offset (exclusive)
+	 * @param result reusable result holder that receives the conversion status and the offending token offsets
+	 * @return numeric form of the given input range or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 */
+	default long parseLong(CharSequence input, int start, int end, ParseResult result) {
+		result.reset();
+		try {
+			final Long res = stringToNumber(input, start, end);
+			return res == null ? result.failure(ParseResult.Status.UNRECOGNIZED_TOKEN, start, end) : result.success(res);
+		} catch(UnrecognizedTokenException e) {
+			return result.failure(ParseResult.Status.UNRECOGNIZED_TOKEN, start, end);
+		} catch(LanguageException e) {
+			return result.failure(ParseResult.Status.UNSUPPORTED_LANGUAGE, start, end);
+		}
+	}
+
+	/**
+	 * Provides the words this parser recognizes. Parsers that have a lexicon take part in fused detect-and-parse,
+	 * where the input is tokenized once and the FSMs of all candidate languages are advanced side by side.
+	 * This implementation returns <em>null</em>: the parser is called on its own.
+	 *
+	 * @return lexicon this parser uses or <em>null</em> if the parser doesn't use {@linkplain Utils#parseLong(CharSequence, int, int, Lexicon, ParseResult)}
+	 * @see FusedNumberParser
+	 */
+	default Lexicon lexicon() {
+		return null;
+	}
+
 	/**
 	 * Converts the given input e.g. 14246 to its text form -- "fourteen thousand two hundred and forty-six"
 	 *
@@ -26,6 +91,64 @@ public interface LangNumberParser {
 	 */
 	String numberToString(Long input);
 
+	/**
+	 * Appends text form of the given input e.g. 14246 -- "fourteen thousand two hundred and forty-six" to the given output.<p/>
+	 * This implementation appends result of {@linkplain #numberToString(Long)}.
+	 * Implementations are encouraged to write straight into the output, without intermediate strings.
+	 *
+	 * @param input a number
+	 * @param out   output to append to
+	 * @return the given output
+	 * @throws IOException if the output fails
+	 */
+	default Appendable render(long input, Appendable out) throws IOException {
+		return out.append(numberToString(input));
+	}
+
+	/**
+	 * Appends text form of the given input e.g. 14246 -- "fourteen thousand two hundred and forty-six" to the given builder.
+	 * A builder that is reused (cleared with <code>setLength(0)</code>) between calls makes the conversion allocation-free.
+	 *
+	 * @param input a number
+	 * @param out   builder to append to
+	 * @return the given builder
+	 * @see #render(long, Appendable)
+	 */
+	default StringBuilder render(long input, StringBuilder out) {
+		try {
+			render(input, (Appendable) out);
+		} catch(IOException e) {
+			// StringBuilder never throws it
+			throw new UncheckedIOException(e);
+		}
+		return out;
+	}
+
+	/**
+	 * Creates a parser variant that applies the given configuration.
+	 * Implementations should return a new, immutable instance (or this instance if the configuration doesn't affect it),
+	 * so the variant can be shared between threads and cached per distinct configuration.
+	 * This implementation never modifies this instance: it creates a new one with the public no-arg constructor
+	 * (which every registered parser has) and configures it with {@linkplain #with(Map)} method.
+	 *
+	 * @param config configuration parameters
+	 * @return parser that applies the given configuration
+	 * @throws IllegalStateException if a new instance of this parser cannot be created
+	 * @see ParserConfig
+	 */
+	default LangNumberParser configure(@NotNull ParserConfig config) {
+		if(config.isEmpty()) {
+			return this;
+		}
+		final LangNumberParser variant;
+		try {
+			variant = getClass().getConstructor().newInstance();
+		} catch(ReflectiveOperationException e) {
+			throw new IllegalStateException("Couldn't create new instance of " + getClass().getName() + ". It should either have a public no-arg constructor or override configure method", e);
+		}
+		return variant.with(config.asMap());
+	}
+
 	/**
 	 * Configures this parser.
 	 * This implementation just call {@linkplain #with(String, Object)} method for each configuration pair in this map.
@@ -3,19 +3,16 @@ package kem.tnp.common;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.channels.FileChannel;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Created by Evgeny Kurtser on 05-Jan-22 at 6:32 PM.
@@ -24,117 +21,414 @@ import java.util.stream.Stream;
 public class LanguageDetector {
 	public final static Logger log = LoggerFactory.getLogger(LanguageDetector.class);
 
-	private static final LanguageDetector INSTANCE = new LanguageDetector();
+	/**
+	 * Default maximal number of words that are checked.
+	 */
+	public static final int DEFAULT_MAX_WORDS = 1024;
+	/**
+	 * Default maximal number of characters that are scanned.
+	 */
+	public static final int DEFAULT_MAX_CHARS = 16 * 1024;
+	/**
+	 * Default number of recognized words the leading language should be ahead of any other language by in order to stop detection early.
+	 */
+	public static final int DEFAULT_CONFIDENCE_MARGIN = 32;
+
+	private static final LanguageDetector INSTANCE = new LanguageDetector(DEFAULT_MAX_WORDS, DEFAULT_MAX_CHARS, DEFAULT_CONFIDENCE_MARGIN, 0);
+
+	// Shared by all detector variants. Loaded once, see getIndex().
+	private static volatile DictionaryIndex index;
+	// Where the index was loaded from, when and how long it took.
+	private static volatile String indexSource = "";
+	private static volatile long indexLoadedAt;
+	private static volatile long indexLoadNanos;
 
-	private Map<String, Set<String>> languageDict;
+	private final int maxWords;
+	private final int maxChars;
+	private final int confidenceMargin;
+	// Normalized input -> detection result, null if the results are not cached.
+	private final MemoCache<String, List<Tuple2<String, Float>>> cache;
 
+	private LanguageDetector(int maxWords, int maxChars, int confidenceMargin, int cacheSize) {
+		if(maxWords <= 0 || maxChars <= 0 || confidenceMargin <= 0) {
+			throw new IllegalArgumentException("Detection limits should be positive");
+		}
+		this.maxWords = maxWords;
+		this.maxChars = maxChars;
+		this.confidenceMargin = confidenceMargin;
+		this.cache = cacheSize > 0 ? new MemoCache<>(cacheSize) : null;
+	}
+
+	/**
+	 * @return detector with default limits
+	 */
 	public static LanguageDetector getLanguageDetector() {
 		return INSTANCE;
 	}
 
+	/**
+	 * Creates detector variant that checks at most the given number of input words.
+	 *
+	 * @param maxWords maximal number of words to check. Default is {@value #DEFAULT_MAX_WORDS}
+	 * @return new detector that shares dictionaries with this one
+	 */
+	public LanguageDetector withMaxWords(int maxWords) {
+		return new LanguageDetector(maxWords, maxChars, confidenceMargin, cacheSize());
+	}
+
+	/**
+	 * Creates detector variant that scans at most the given number of input characters, regardless of the input length.
+	 *
+	 * @param maxChars maximal number of characters to scan. Default is {@value #DEFAULT_MAX_CHARS}
+	 * @return new detector that shares dictionaries with this one
+	 */
+	public LanguageDetector withMaxChars(int maxChars) {
+		return new LanguageDetector(maxWords, maxChars, confidenceMargin, cacheSize());
+	}
+
+	/**
+	 * Creates detector variant that stops as soon as the leading language has the given number of recognized words more than any other language.
+	 * Use {@linkplain Integer#MAX_VALUE} in order to always check {@linkplain #withMaxWords(int) all the words}.
+	 *
+	 * @param confidenceMargin number of recognized words. Default is {@value #DEFAULT_CONFIDENCE_MARGIN}
+	 * @return new detector that shares dictionaries with this one
+	 */
+	public LanguageDetector withConfidenceMargin(int confidenceMargin) {
+		return new LanguageDetector(maxWords, maxChars, confidenceMargin, cacheSize());
+	}
+
+	/**
+	 * Creates detector variant that caches detection results of up to the given number of distinct inputs.
+	 * The results are cached by normalized input (see {@linkplain Tokenizer#normalize(CharSequence)}).
+	 * Only inputs not longer than {@value MemoCache#MAX_KEY_LENGTH} characters and not cut by {@linkplain #withMaxChars(int) characters limit}
+	 * are cached. Variants of the returned detector get their own caches of the same size.
+	 *
+	 * @param maximumSize maximal number of cached results, 0 to disable caching
+	 * @return new detector that shares dictionaries with this one
+	 * @see MemoCache
+	 */
+	public LanguageDetector withCache(int maximumSize) {
+		if(maximumSize < 0) {
+			throw new IllegalArgumentException("Cache size should not be negative");
+		}
+		return new LanguageDetector(maxWords, maxChars, confidenceMargin, maximumSize);
+	}
+
+	/**
+	 * @return statistics of the detection results cache or {@linkplain Optional#empty()} if the results are not cached
+	 * @see #withCache(int)
+	 */
+	public Optional<MemoCache.Stats> getCacheStats() {
+		return Optional.ofNullable(cache).map(MemoCache::stats);
+	}
+
+	private int cacheSize() {
+		return cache == null ? 0 : cache.maximumSize();
+	}
+
 	/**
 	 * Calculates the language code that the given input is <em>probably</em> written in.
 	 *
 	 * @param input input text
-	 * @return the language code.
-	 * @see #detectLanguages(String)
+	 * @return the language code or {@linkplain Optional#empty()} if the input contains no dictionary words.
+	 * @see #detectLanguages(CharSequence)
 	 */
 	public Optional<String> detectLanguage(String input) {
+		return detectLanguage((CharSequence) input);
+	}
+
+	/**
+	 * Calculates the language code that the given input is <em>probably</em> written in.
+	 *
+	 * @param input input text
+	 * @return the language code or {@linkplain Optional#empty()} if the input contains no dictionary words.
+	 * @see #detectLanguages(CharSequence)
+	 */
+	public Optional<String> detectLanguage(CharSequence input) {
 		return detectLanguages(input)
+				.filter(lst -> !lst.isEmpty())
 				.map(lst -> lst.get(0).getA())
 				.filter(lang -> !lang.isEmpty());
 	}
 
 	/**
 	 * Calculates list of language codes that the given input is <em>probably</em> written in.
-	 * The result contains list of [language, a number] pairs. The number is in 0..1 range. The bigger the number, the more probable the input is written in this language.<p/>
-	 * For example, if the input is mostly in English but contains some Russian words then result would be [["en", .436], ["ru", .075]]<p/>
-	 * The list is sorted by probability descending.
 	 *
 	 * @param input input text
 	 * @return list of language codes.
+	 * @see #detectLanguages(CharSequence)
 	 */
 	public Optional<List<Tuple2<String, Float>>> detectLanguages(String input) {
-		if(languageDict == null) {
-			languageDict = loadLanguagesWords().orElse(Collections.emptyMap());
-		}
-		// Get up to 1024 words of the input text.
-		final List<String> words = Stream.of(input.split("\\s+"))
-				.limit(1024)
-				.map(String::toLowerCase)
-				.collect(Collectors.toList());
-		final List<Tuple2<String, Float>> langList = languageDict.entrySet().stream()
-				.map(lang -> {
-					final AtomicInteger counter = new AtomicInteger();
-					words.forEach(word -> {
-						if(lang.getValue().contains(word)) {
-							counter.getAndIncrement();
-						}
-					});
-					float f = (float) counter.get() / lang.getValue().size();
-					return new Tuple2<>(lang.getKey(), f);
-				})
-				.filter(tuple2 -> tuple2.getB() > 0)
-				.sorted((a, b) -> Float.compare(b.getB(), a.getB()))
-				.collect(Collectors.toList());
-		return Optional.of(langList);
+		return detectLanguages((CharSequence) input);
 	}
 
 	/**
-	 * Loads map of languages dictionary from "dict" resource directory.
-	 * Key is language code e.g "en", "it", "ru". Value is set of most common words in this language.
+	 * Calculates list of language codes that the given input is <em>probably</em> written in.
+	 * The result contains list of [language, a number] pairs. The number is in 0..1 range. The bigger the number, the more probable the input is written in this language.<p/>
+	 * For example, if the input is mostly in English but contains some Russian words then result would be [["en", .436], ["ru", .075]]<p/>
+	 * The list is sorted by probability descending.<p/>
+	 * Every input word is looked up once in the combined index of all dictionaries, which yields the set of languages that contain the word,
+	 * so detection cost doesn't depend on the number of dictionaries.
+	 * The words are read from the input one by one, and detection stops as soon as one of the following happens:<ul>
+	 * <li>the leading language has {@linkplain #withConfidenceMargin(int) enough} recognized words more than any other language</li>
+	 * <li>{@linkplain #withMaxWords(int) enough} words are checked</li>
+	 * <li>{@linkplain #withMaxChars(int) enough} characters are scanned</li>
+	 * </ul>
+	 * So the cost is bounded regardless of the input length.<p/>
+	 * Before the words are read, the scripts of the input letters are collected in a single pass, and only the languages
+	 * whose dictionaries are declared with these scripts are scored.<p/>
+	 * Repeated short inputs are not scanned again if the detector {@linkplain #withCache(int) caches} its results.
 	 *
-	 * @return map of languages dictionary or {@link Collections#emptyMap()} if "dict" resource directory cannot be accessed.
+	 * @param input input text
+	 * @return list of language codes.
 	 */
-	private Optional<Map<String, Set<String>>> loadLanguagesWords() {
-		// read all files from a resources folder
-		log.trace("Loading dictionary files...");
+	public Optional<List<Tuple2<String, Float>>> detectLanguages(CharSequence input) {
+		final DetectLanguagesEvent event = new DetectLanguagesEvent();
+		if(!event.isEnabled()) {
+			return detectMeasured(input, null);
+		}
+		event.begin();
 		try {
-			// files from /dict directory
-			final List<File> dictFiles = getDictFilesFromResource();
-			Map<String, Set<String>> res = dictFiles.stream()
-					.collect(Collectors.toMap(
-							file -> file.getName().substring(0, file.getName().lastIndexOf('.')), // map key: en.dict -> en
-							fileContentFunc // map value: Set of word taken from the file (i.e. file content).
-					));
-			log.trace(res.size() + " dictionary files loaded.");
+			final Optional<List<Tuple2<String, Float>>> res = detectMeasured(input, event);
+			event.candidates = res.map(List::size).orElse(0);
+			if(event.candidates > 0) {
+				event.language = res.get().get(0).getA();
+				event.outcome = ParserEvent.SUCCESS;
+			} else {
+				event.outcome = ParserEvent.UNKNOWN_LANGUAGE;
+			}
+			return res;
+		} catch(RuntimeException e) {
+			event.failed(e);
+			throw e;
+		} finally {
+			event.commit(input, 0, input.length());
+		}
+	}
+
+	private Optional<List<Tuple2<String, Float>>> detectMeasured(CharSequence input, @Nullable DetectLanguagesEvent event) {
+		final ParserMetrics metrics = Metrics.current();
+		if(metrics == null) {
+			return detectCached(input, event);
+		}
+		final long started = System.nanoTime();
+		final Optional<List<Tuple2<String, Float>>> res = detectCached(input, event);
+		final boolean success = res.isPresent() && !res.get().isEmpty();
+		metrics.record(ParserMetrics.Operation.DETECT, success ? res.get().get(0).getA() : ParserMetrics.NO_LANGUAGE, System.nanoTime() - started, success);
+		return res;
+	}
+
+	// The event phases are measured only if the event is given.
+	private Optional<List<Tuple2<String, Float>>> detectCached(CharSequence input, @Nullable DetectLanguagesEvent event) {
+		if(cache == null || input.length() > Math.min(maxChars, MemoCache.MAX_KEY_LENGTH)) {
+			return detect(input, event);
+		}
+		final long started = event == null ? 0L : System.nanoTime();
+		final String key = Tokenizer.normalize(input);
+		if(event != null) {
+			event.normalizeNanos = System.nanoTime() - started;
+		}
+		List<Tuple2<String, Float>> res = cache.get(key);
+		if(res == null) {
+			res = detect(input, event).orElseGet(ArrayList::new);
+			cache.put(key, copy(res));
 			return Optional.of(res);
-		} catch(IOException e) {
-			log.error("Could not read/access dictionary file", e);
 		}
-		return Optional.empty();
+		if(event != null) {
+			event.cached = true;
+		}
+		// The cached list is never handed out, so callers may modify what they get.
+		return Optional.of(copy(res));
+	}
+
+	private Optional<List<Tuple2<String, Float>>> detect(CharSequence input, @Nullable DetectLanguagesEvent event) {
+		if(event == null) {
+			return detect(input);
+		}
+		final long started = System.nanoTime();
+		try {
+			return detect(input);
+		} finally {
+			event.scanNanos = System.nanoTime() - started;
+		}
+	}
+
+	private static List<Tuple2<String, Float>> copy(List<Tuple2<String, Float>> languages) {
+		final List<Tuple2<String, Float>> res = new ArrayList<>(languages.size());
+		for(Tuple2<String, Float> language : languages) {
+			res.add(Tuple2.of(language.getA(), language.getB()));
+		}
+		return res;
+	}
+
+	private Optional<List<Tuple2<String, Float>>> detect(CharSequence input) {
+		final DictionaryIndex index = getIndex();
+		final int[] counters = new int[index.languages.length];
+		final StringBuilder lowerCase = LOWER_CASE.get();
+		final int end = Math.min(input.length(), maxChars);
+		// Only the languages written in the scripts of the input are candidates, e.g. Cyrillic input is never scored against "en".
+		final long candidates = index.languagesOf(Script.scan(input, 0, end));
+		if(candidates == 0) {
+			return Optional.of(new ArrayList<>());
+		}
+		int leader = -1, best = 0, second = 0;
+		int words = 0;
+		for(int s = Tokenizer.tokenStart(input, 0, end); s < end && words < maxWords; s = Tokenizer.tokenStart(input, s, end)) {
+			final int wordStart = s;
+			lowerCase.setLength(0);
+			for(; s < end && !Character.isWhitespace(input.charAt(s)); s++) {
+				lowerCase.append(Character.toLowerCase(input.charAt(s)));
+			}
+			if(s == end && end < input.length() && !Character.isWhitespace(input.charAt(end))) {
+				// The word is cut by the characters limit.
+				break;
+			}
+			words++;
+			// Words that start with a digit, a punctuation mark or a letter of non-candidate script are not looked up.
+			final Script script = Script.of(input.charAt(wordStart));
+			if(script == null || (index.scriptLanguages[script.ordinal()] & candidates) == 0) {
+				continue;
+			}
+			for(long m = index.lookup(lowerCase, 0, lowerCase.length()) & candidates; m != 0; m &= m - 1) {
+				final int lang = Long.numberOfTrailingZeros(m);
+				final int count = ++counters[lang];
+				// Track the two biggest counters, so the margin is checked in constant time.
+				if(lang == leader) {
+					best = count;
+				} else if(count > best) {
+					second = best;
+					best = count;
+					leader = lang;
+				} else if(count > second) {
+					second = count;
+				}
+			}
+			if(best - second >= confidenceMargin) {
+				break;
+			}
+		}
+		final List<Tuple2<String, Float>> langList = new ArrayList<>();
+		for(int lang = 0; lang < counters.length; lang++) {
+			if(counters[lang] > 0) {
+				langList.add(new Tuple2<>(index.languages[lang], (float) counters[lang] / index.sizes[lang]));
+			}
+		}
+		langList.sort((a, b) -> Float.compare(b.getB(), a.getB()));
+		return Optional.of(langList);
 	}
 
 	/**
-	 * Retrieves list of files located in resource "dict" directory.
+	 * Loads the languages dictionaries unless they are loaded already. Detection loads them on first use anyway,
+	 * so calling this method is optional: it lets the dictionaries be loaded before the first input comes.
+	 * The dictionaries are loaded exactly once, even if the first calls are concurrent.
 	 *
-	 * @return list of files located in resource "dict" directory
-	 * @throws IOException if an I/O error is thrown when accessing the starting file.
+	 * @see StringNumberParser#warmUp()
 	 */
-	private List<File> getDictFilesFromResource() throws IOException {
-		ClassLoader classLoader = getClass().getClassLoader();
-		URL resource = classLoader.getResource("dict");
-		assert resource != null;
-		try {
-			return Files.walk(Paths.get(resource.toURI()))
-					.filter(Files::isRegularFile)
-					.map(Path::toFile)
-					.collect(Collectors.toList());
-		} catch(URISyntaxException e) {
-			log.warn("It should be happen", e);
-			return Collections.emptyList();
+	public static void preload() {
+		getIndex();
+	}
+
+	/**
+	 * Loads the languages dictionaries again, e.g. after the dictionary resources are replaced. Detections that are in progress
+	 * complete with the old dictionaries. Results cached by {@linkplain #withCache(int) caching} detectors are not dropped.
+	 */
+	public static void reloadDictionaries() {
+		final DictionaryIndex res = loadIndex();
+		synchronized(LanguageDetector.class) {
+			index = res;
+		}
+	}
+
+	static DictionaryIndex getIndex() {
+		DictionaryIndex res = index;
+		if(res == null) {
+			synchronized(LanguageDetector.class) {
+				res = index;
+				if(res == null) {
+					index = res = loadIndex();
+				}
+			}
 		}
+		return res;
 	}
 
-	private final Function<File, Set<String>> fileContentFunc = (file) -> {
+	// Per-thread buffer that lets a word be lower-cased and looked up without creating a string.
+	private static final ThreadLocal<StringBuilder> LOWER_CASE = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+	/**
+	 * Loads languages dictionaries. They are compiled at build time into the {@value DictionaryIndex#RESOURCE} resource
+	 * (see {@linkplain DictionaryCompiler}), which is memory-mapped if it is a regular file, or read as a single stream if it is packaged in a JAR.
+	 * If there is no compiled index, e.g. the build step has not run, the text dictionaries of the "dict" resource directory are compiled on the fly.
+	 * Dictionary file name is language code e.g "en.dict", "it.dict", "ru.dict". Its lines are the most common words in this language.
+	 * Header lines start with "#". The header declares the scripts the language is written in, e.g. "#scripts=CYRILLIC".
+	 * If there is no such declaration, the scripts are inferred from the words.
+	 *
+	 * @return index of languages dictionaries. It is empty if the dictionaries cannot be accessed.
+	 */
+	private static DictionaryIndex loadIndex() {
+		log.trace("Loading dictionaries...");
+		final long started = System.nanoTime();
+		final ClassLoader classLoader = LanguageDetector.class.getClassLoader();
 		try {
-			final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
-			final Set<String> words = new HashSet<>(lines.size());
-			words.addAll(lines);
-			return words;
-		} catch(IOException e) {
-			log.error("Could not read/access file " + file.getName(), e);
-			return Collections.emptySet();
-		}
-	};
-}
\ No newline at end of file
+			final URL resource = classLoader.getResource(DictionaryIndex.RESOURCE);
+			final DictionaryIndex res = resource != null ? readIndex(resource) : compileIndex(classLoader);
+			indexLoaded(String.valueOf(resource != null ? resource : classLoader.getResource("dict")), started);
+			log.trace(res.languages.length + " dictionaries loaded in " + indexLoadNanos / 1000 + " us.");
+			return res;
+		} catch(IOException | URISyntaxException e) {
+			log.error("Could not read/access dictionaries", e);
+		}
+		indexLoaded("", started);
+		return DictionaryIndex.of(Collections.emptyList());
+	}
+
+	private static void indexLoaded(String source, long started) {
+		indexLoadNanos = System.nanoTime() - started;
+		indexLoadedAt = System.currentTimeMillis();
+		indexSource = source;
+	}
+
+	/**
+	 * @return URL of the resource the dictionaries were loaded from, empty if they couldn't be loaded
+	 */
+	static String getIndexSource() {
+		return indexSource;
+	}
+
+	/**
+	 * @return time the dictionaries were loaded at, in milliseconds since the epoch, 0 if they are not loaded yet
+	 */
+	static long getIndexLoadedAt() {
+		return indexLoadedAt;
+	}
+
+	/**
+	 * @return duration of the dictionaries loading in nanoseconds
+	 */
+	static long getIndexLoadNanos() {
+		return indexLoadNanos;
+	}
+
+	/**
+	 * Reads the compiled index: a regular file is memory-mapped, any other resource, e.g. a JAR entry, is read as a single stream.
+	 */
+	static DictionaryIndex readIndex(URL resource) throws IOException, URISyntaxException {
+		if("file".equals(resource.getProtocol())) {
+			try(FileChannel channel = FileChannel.open(Paths.get(resource.toURI()), StandardOpenOption.READ)) {
+				return DictionaryIndex.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			}
+		}
+		try(InputStream in = resource.openStream()) {
+			return DictionaryIndex.read(in);
+		}
+	}
+
+	private static DictionaryIndex compileIndex(ClassLoader classLoader) throws IOException, URISyntaxException {
+		final URL resource = classLoader.getResource("dict");
+		if(resource == null || !"file".equals(resource.getProtocol())) {
+			throw new IOException("Neither " + DictionaryIndex.RESOURCE + " nor \"dict\" resource directory is found");
+		}
+		log.warn(DictionaryIndex.RESOURCE + " is not found, dictionaries are compiled from " + resource);
+		return DictionaryCompiler.compile(new File(resource.toURI()));
+	}
+}
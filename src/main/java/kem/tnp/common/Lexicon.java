@@ -0,0 +1,189 @@
+package kem.tnp.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable character trie that maps a number word e.g. "forty" to its FSM state and value -- [{@linkplain ParsingState#S_20_90}, 40].
+ * It replaces the ONES -> TENS -> HUNDREDS -> GROUPS map cascade: a token is looked up in a single walk over its characters,
+ * directly on a [start, end) range of the input, so neither substrings nor hash codes are computed. Unknown tokens usually
+ * stop after the first few characters.<p/>
+ * Lookup is case-insensitive. The trie is stored in flat arrays: node <em>n</em> owns edges [firstEdge[n], firstEdge[n + 1]),
+ * which are sorted by their characters.
+ * Created on 18-Oct-26 at 1:05 AM.
+ */
+public final class Lexicon implements Utils.TokenLookup {
+	private final int[] firstEdge;
+	private final char[] edgeChars;
+	private final int[] edgeTargets;
+	private final Utils.StateWithNumber[] values;
+	private final int size;
+	private final IntPredicate delimiters;
+	private final int scripts;
+
+	private Lexicon(int[] firstEdge, char[] edgeChars, int[] edgeTargets, Utils.StateWithNumber[] values, int size, IntPredicate delimiters, int scripts) {
+		this.firstEdge = firstEdge;
+		this.edgeChars = edgeChars;
+		this.edgeTargets = edgeTargets;
+		this.values = values;
+		this.size = size;
+		this.delimiters = delimiters;
+		this.scripts = scripts;
+	}
+
+	/**
+	 * Compiles language FSM tables into a lexicon.
+	 * If the same word appears in several tables, the first one in {@linkplain Utils.NumberPosition} order wins,
+	 * which is the same precedence {@linkplain Utils#getState(String, java.util.function.Supplier)} has.
+	 *
+	 * @param numPos language-specific FSM tables
+	 * @return new lexicon
+	 */
+	public static Lexicon of(Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>> numPos) {
+		return of(numPos, new char[0]);
+	}
+
+	/**
+	 * Compiles language FSM tables into a lexicon whose words may be joined with the given characters in addition to whitespace,
+	 * e.g. hyphen in English "twenty-four".
+	 *
+	 * @param numPos  language-specific FSM tables
+	 * @param joiners characters that separate words in addition to whitespace
+	 * @return new lexicon
+	 * @see #of(Map)
+	 */
+	public static Lexicon of(Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>> numPos, char... joiners) {
+		final BuildNode root = new BuildNode();
+		int size = 0;
+		int scripts = 0;
+		for(Utils.NumberPosition position : Utils.NumberPosition.values()) {
+			final Map<String, Utils.StateWithNumber> words = numPos.get(position);
+			if(words == null) {
+				continue;
+			}
+			for(Map.Entry<String, Utils.StateWithNumber> word : words.entrySet()) {
+				if(root.add(word.getKey(), word.getValue())) {
+					size++;
+				}
+				scripts |= Script.scan(word.getKey(), 0, word.getKey().length());
+			}
+		}
+		final char[] joinerChars = joiners.clone();
+		final IntPredicate delimiters = joinerChars.length == 0 ? Tokenizer.WHITESPACE : c -> {
+			for(char joiner : joinerChars) {
+				if(c == joiner) {
+					return true;
+				}
+			}
+			return Character.isWhitespace(c);
+		};
+		return root.compile(size, delimiters, scripts);
+	}
+
+	/**
+	 * Looks up the given [start, end) token of the input.
+	 *
+	 * @param input input text
+	 * @param start token start offset (inclusive)
+	 * @param end   token end offset (exclusive)
+	 * @return state and number that correspond to the token or {@linkplain Utils#ERROR} if the token is not recognized
+	 */
+	@Override
+	public Utils.StateWithNumber lookup(CharSequence input, int start, int end) {
+		int node = 0;
+		for(int i = start; i < end; i++) {
+			node = child(node, Character.toLowerCase(input.charAt(i)));
+			if(node < 0) {
+				return Utils.ERROR;
+			}
+		}
+		final Utils.StateWithNumber value = values[node];
+		return value == null ? Utils.ERROR : value;
+	}
+
+	/**
+	 * @return characters that separate words of this lexicon
+	 */
+	@Override
+	public IntPredicate delimiters() {
+		return delimiters;
+	}
+
+	/**
+	 * @return number of words in this lexicon
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return mask of the {@linkplain Script scripts} the words of this lexicon are written in
+	 */
+	public int scripts() {
+		return scripts;
+	}
+
+	private int child(int node, char c) {
+		int lo = firstEdge[node], hi = firstEdge[node + 1] - 1;
+		while(lo <= hi) {
+			final int mid = (lo + hi) >>> 1;
+			final char midChar = edgeChars[mid];
+			if(midChar < c) {
+				lo = mid + 1;
+			} else if(midChar > c) {
+				hi = mid - 1;
+			} else {
+				return edgeTargets[mid];
+			}
+		}
+		return -1;
+	}
+
+	private static final class BuildNode {
+		private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+		private Utils.StateWithNumber value;
+		private int index;
+
+		boolean add(String word, Utils.StateWithNumber value) {
+			BuildNode node = this;
+			for(int i = 0; i < word.length(); i++) {
+				node = node.children.computeIfAbsent(Character.toLowerCase(word.charAt(i)), c -> new BuildNode());
+			}
+			if(node.value != null) {
+				return false;
+			}
+			node.value = value;
+			return true;
+		}
+
+		Lexicon compile(int size, IntPredicate delimiters, int scripts) {
+			// Number the nodes in breadth-first order, so the edges of every node are stored contiguously.
+			final List<BuildNode> nodes = new ArrayList<>();
+			nodes.add(this);
+			for(int i = 0; i < nodes.size(); i++) {
+				final BuildNode node = nodes.get(i);
+				node.index = i;
+				nodes.addAll(node.children.values());
+			}
+			final int[] firstEdge = new int[nodes.size() + 1];
+			final char[] edgeChars = new char[nodes.size() - 1];
+			final int[] edgeTargets = new int[nodes.size() - 1];
+			final Utils.StateWithNumber[] values = new Utils.StateWithNumber[nodes.size()];
+			int edge = 0;
+			for(BuildNode node : nodes) {
+				firstEdge[node.index] = edge;
+				values[node.index] = node.value;
+				for(Map.Entry<Character, BuildNode> child : node.children.entrySet()) {
+					edgeChars[edge] = child.getKey();
+					edgeTargets[edge] = child.getValue().index;
+					edge++;
+				}
+			}
+			firstEdge[nodes.size()] = edge;
+			return new Lexicon(firstEdge, edgeChars, edgeTargets, values, size, delimiters, scripts);
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package kem.tnp.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * UTF-8 text of a file range decoded incrementally from memory-mapped windows of the file. The file is mapped
+ * window by window, so a source of any length takes a window of address space at most, and no bytes are copied to the heap.
+ * Every character is reported with the byte offset it starts at. Malformed sequences and supplementary characters
+ * (which are never number words) are decoded as single U+FFFD characters.
+ * Created on 18-Oct-26 at 3:10 PM.
+ */
+final class MappedUtf8Source implements NumberExtractor.TextSource {
+	// Size of the mapped window in bytes.
+	static final int WINDOW_SIZE = 1 << 24;
+
+	private static final char REPLACEMENT = '\uFFFD';
+	// Longest UTF-8 sequence in bytes.
+	private static final int MAX_SEQUENCE = 4;
+
+	private final FileChannel channel;
+	private final long size;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private long position;
+
+	/**
+	 * @param channel  file channel
+	 * @param position offset of the first byte to decode. Should be a character boundary
+	 * @param size     offset right after the last byte to decode
+	 */
+	MappedUtf8Source(FileChannel channel, long position, long size) {
+		this.channel = channel;
+		this.position = position;
+		this.size = size;
+	}
+
+	@Override
+	public int read(char[] chars, long[] offsets, int off, int len) throws IOException {
+		if(position >= size) {
+			return -1;
+		}
+		int res = 0;
+		while(res < len && position < size) {
+			int index = (int) (position - windowStart);
+			if(window == null || index + MAX_SEQUENCE > window.limit() && windowStart + window.limit() < size) {
+				map();
+				index = 0;
+			}
+			final int limit = window.limit();
+			final int lead = window.get(index);
+			char c;
+			int length = 1;
+			if(lead >= 0) {
+				c = (char) lead;
+			} else {
+				final int expected = (lead & 0xE0) == 0xC0 ? 2 : (lead & 0xF0) == 0xE0 ? 3 : (lead & 0xF8) == 0xF0 ? 4 : 1;
+				int code = lead & (0x7F >> expected);
+				while(length < expected && index + length < limit && (window.get(index + length) & 0xC0) == 0x80) {
+					code = code << 6 | window.get(index + length) & 0x3F;
+					length++;
+				}
+				c = length == expected && isBmp(code, length) ? (char) code : REPLACEMENT;
+			}
+			chars[off + res] = c;
+			offsets[off + res] = position;
+			res++;
+			position += length;
+		}
+		return res;
+	}
+
+	@Override
+	public long offset() {
+		return position;
+	}
+
+	// Not overlong, not a surrogate and not a supplementary character.
+	private static boolean isBmp(int code, int length) {
+		switch(length) {
+			case 2:
+				return code >= 0x80;
+			case 3:
+				return code >= 0x800 && (code < Character.MIN_SURROGATE || code > Character.MAX_SURROGATE);
+			default:
+				return false;
+		}
+	}
+
+	private void map() throws IOException {
+		windowStart = position;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+	}
+
+	/**
+	 * @param channel file channel
+	 * @param offset  offset to start looking from
+	 * @param size    file size
+	 * @return offset of the first character boundary at or after the given offset
+	 */
+	static long charStart(FileChannel channel, long offset, long size) throws IOException {
+		final ByteBuffer bytes = ByteBuffer.allocate(MAX_SEQUENCE);
+		channel.read(bytes, offset);
+		for(int i = 0; i < bytes.position(); i++) {
+			if((bytes.get(i) & 0xC0) != 0x80) {
+				return offset + i;
+			}
+		}
+		return Math.min(offset + bytes.position(), size);
+	}
+
+	/**
+	 * @param channel file channel
+	 * @param offset  offset to start looking from
+	 * @param size    file size
+	 * @return offset of the first ASCII whitespace at or after the given offset, or the file size if there is none.
+	 * In UTF-8 these bytes are never a part of a multibyte sequence, so the offset is a character boundary
+	 */
+	static long whitespaceAfter(FileChannel channel, long offset, long size) throws IOException {
+		final ByteBuffer bytes = ByteBuffer.allocate(4096);
+		while(offset < size) {
+			bytes.clear();
+			final int read = channel.read(bytes, offset);
+			if(read <= 0) {
+				break;
+			}
+			for(int i = 0; i < read; i++) {
+				switch(bytes.get(i)) {
+					case ' ':
+					case '\t':
+					case '\n':
+					case 0x0B:
+					case '\f':
+					case '\r':
+						return offset + i;
+					default:
+				}
+			}
+			offset += read;
+		}
+		return size;
+	}
+}
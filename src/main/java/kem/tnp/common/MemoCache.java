@@ -0,0 +1,275 @@
+package kem.tnp.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded concurrent cache of conversion results. Real traffic is skewed: a few thousand distinct phrases
+ * ("one hundred", "twenty-five thousand" etc) make up most of the requests, so their results are worth remembering.<p/>
+ * Entries are spread over lock stripes, so concurrent lookups of different keys rarely contend. Every stripe keeps its entries
+ * in least-recently-used order. When a stripe is full, a new entry is admitted only if its key has been requested more often
+ * than the key of the least recently used entry, which is then evicted (TinyLFU admission). Request frequencies are estimated by a
+ * small count-min sketch whose counters are halved periodically, so the frequencies follow the recent traffic and
+ * a burst of one-off inputs doesn't flush the popular phrases out.<p/>
+ * An instance is thread-safe.
+ * Created on 18-Oct-26 at 7:30 AM.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @see StringNumberParser#enableCache(int)
+ * @see LanguageDetector#withCache(int)
+ */
+public final class MemoCache<K, V> {
+	/**
+	 * Inputs longer than this are not cached: they are not the popular phrases and would bloat the cache.
+	 */
+	public static final int MAX_KEY_LENGTH = 256;
+
+	private static final int MAX_STRIPES = 16;
+	private static final int MIN_STRIPE_SIZE = 64;
+
+	private final int maximumSize;
+	private final Stripe<K, V>[] stripes;
+	private final FrequencySketch sketch;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param maximumSize maximal number of entries
+	 * @throws IllegalArgumentException if the size is not positive
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public MemoCache(int maximumSize) {
+		if(maximumSize <= 0) {
+			throw new IllegalArgumentException("Cache size should be positive");
+		}
+		this.maximumSize = maximumSize;
+		// Small caches are not striped: LRU order and admission work poorly on tiny stripes.
+		this.stripes = new Stripe[Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, maximumSize / MIN_STRIPE_SIZE)))];
+		// Spread the capacity, so the stripes hold exactly maximumSize entries altogether.
+		for(int i = 0; i < stripes.length; i++) {
+			stripes[i] = new Stripe<>(maximumSize / stripes.length + (i < maximumSize % stripes.length ? 1 : 0));
+		}
+		this.sketch = new FrequencySketch(maximumSize);
+	}
+
+	/**
+	 * @return maximal number of entries
+	 */
+	public int maximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Looks up the value of the given key. Every lookup counts towards the key frequency.
+	 *
+	 * @param key a key
+	 * @return the cached value or <em>null</em> if there is no value for the key
+	 */
+	public V get(K key) {
+		final int hash = spread(key.hashCode());
+		sketch.increment(hash);
+		final Stripe<K, V> stripe = stripe(hash);
+		final V res;
+		synchronized(stripe) {
+			res = stripe.get(key);
+		}
+		(res == null ? misses : hits).increment();
+		return res;
+	}
+
+	/**
+	 * Caches the given value. If the cache is full, the value is cached only if its key is requested more often than the key of
+	 * the least recently used entry.
+	 *
+	 * @param key   a key
+	 * @param value the value
+	 */
+	public void put(K key, V value) {
+		final int hash = spread(key.hashCode());
+		final Stripe<K, V> stripe = stripe(hash);
+		synchronized(stripe) {
+			if(stripe.size() < stripe.capacity || stripe.containsKey(key)) {
+				stripe.put(key, value);
+				return;
+			}
+			final K victim = stripe.keySet().iterator().next();
+			if(sketch.frequency(hash) > sketch.frequency(spread(victim.hashCode()))) {
+				stripe.remove(victim);
+				stripe.put(key, value);
+			}
+		}
+		// Either the victim or the new entry is dropped.
+		evictions.increment();
+	}
+
+	/**
+	 * Removes all entries. Statistics are kept.
+	 */
+	public void clear() {
+		for(Stripe<K, V> stripe : stripes) {
+			synchronized(stripe) {
+				stripe.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return current number of entries
+	 */
+	public int size() {
+		int res = 0;
+		for(Stripe<K, V> stripe : stripes) {
+			synchronized(stripe) {
+				res += stripe.size();
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * @return snapshot of the cache statistics
+	 */
+	public Stats stats() {
+		return new Stats(hits.sum(), misses.sum(), evictions.sum(), size(), maximumSize);
+	}
+
+	@Override
+	public String toString() {
+		return "MemoCache" + stats();
+	}
+
+	private Stripe<K, V> stripe(int hash) {
+		return stripes[hash & (stripes.length - 1)];
+	}
+
+	private static int spread(int hash) {
+		return (hash ^ (hash >>> 16)) * 0x45D9F3B;
+	}
+
+	/**
+	 * Cache statistics. Use them to size the cache: a low hit rate along with many evictions means the cache is too small.
+	 */
+	public static final class Stats {
+		private final long hitCount;
+		private final long missCount;
+		private final long evictionCount;
+		private final int size;
+		private final int maximumSize;
+
+		Stats(long hitCount, long missCount, long evictionCount, int size, int maximumSize) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.evictionCount = evictionCount;
+			this.size = size;
+			this.maximumSize = maximumSize;
+		}
+
+		/**
+		 * @return number of lookups that found a value
+		 */
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		/**
+		 * @return number of lookups that found no value
+		 */
+		public long getMissCount() {
+			return missCount;
+		}
+
+		/**
+		 * @return number of entries that were evicted or not admitted because the cache was full
+		 */
+		public long getEvictionCount() {
+			return evictionCount;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public int getMaximumSize() {
+			return maximumSize;
+		}
+
+		/**
+		 * @return ratio of the lookups that found a value, 0 if there were no lookups
+		 */
+		public double hitRate() {
+			final long requests = hitCount + missCount;
+			return requests == 0 ? 0 : (double) hitCount / requests;
+		}
+
+		@Override
+		public String toString() {
+			return "[hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + ", size=" + size + "/" + maximumSize + "]";
+		}
+	}
+
+	// Lock stripe: map in access order, so its first entry is the least recently used one.
+	private static final class Stripe<K, V> extends LinkedHashMap<K, V> {
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		Stripe(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+	}
+
+	/**
+	 * Count-min sketch of 4-bit counters: every key increments one counter in each of 4 rows, its frequency is the smallest of them.
+	 * When the number of increments reaches 10 times the cache size, all the counters are halved.
+	 * Counters are updated without synchronization: a lost update only makes an estimate a bit lower.
+	 */
+	private static final class FrequencySketch {
+		private static final int[] SEEDS = {0x97CB3127, 0xB8B34B2D, 0x8E4B5E3D, 0xC2B2AE35};
+		private static final int MAX_COUNT = 15;
+
+		private final byte[] counters;
+		private final int rowMask;
+		private final int resetPeriod;
+		private int increments;
+
+		FrequencySketch(int maximumSize) {
+			final int width = Integer.highestOneBit(Math.max(8, maximumSize - 1) << 1);
+			this.counters = new byte[SEEDS.length * width];
+			this.rowMask = width - 1;
+			this.resetPeriod = 10 * maximumSize;
+		}
+
+		void increment(int hash) {
+			for(int row = 0; row < SEEDS.length; row++) {
+				final int i = index(hash, row);
+				if(counters[i] < MAX_COUNT) {
+					counters[i]++;
+				}
+			}
+			if(++increments >= resetPeriod) {
+				increments = 0;
+				for(int i = 0; i < counters.length; i++) {
+					counters[i] >>= 1;
+				}
+			}
+		}
+
+		int frequency(int hash) {
+			int res = MAX_COUNT;
+			for(int row = 0; row < SEEDS.length; row++) {
+				res = Math.min(res, counters[index(hash, row)]);
+			}
+			return res;
+		}
+
+		private int index(int hash, int row) {
+			int h = hash * SEEDS[row];
+			h ^= h >>> 17;
+			return row * (rowMask + 1) + (h & rowMask);
+		}
+	}
+}
@@ -0,0 +1,595 @@
+package kem.tnp.common;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.LongConsumer;
+
+/**
+ * Finds spelled-out numbers in a free text, e.g. "twenty-five thousand" in "I paid twenty-five thousand dollars".
+ * The text is read once: its words are fed to the number FSMs of all the candidate languages side by side
+ * (see {@linkplain FusedNumberParser}), and every maximal phrase that one of them converts is reported with its [start, end) offsets,
+ * value and language. A phrase ends where the FSM cannot go on, so adjacent numbers are told apart, e.g. "five six" is two phrases,
+ * and no substring is converted twice.<p/>
+ * Words are runs of letters. Words separated by whitespace or hyphens make a phrase; any other character, e.g. a punctuation mark
+ * or a digit, ends it. Trailing conjunctions and articles are not part of a phrase: "one hundred and" is "one hundred".
+ * Only the languages whose parsers provide a {@linkplain LangNumberParser#lexicon() lexicon} are candidates.
+ * If several languages convert a phrase, the one that converts the longest phrase wins, then the first one in the candidates order.<p/>
+ * A {@linkplain Reader} is read through a buffer of a fixed {@linkplain #withBufferSize(int) size}, so memory doesn't depend
+ * on the text length. Phrases and words that cross buffer boundaries are handled; a phrase longer than the buffer is split.<p/>
+ * A UTF-8 {@linkplain #extract(Path, long, PhraseConsumer, LongConsumer) file} is memory-mapped and split into
+ * {@linkplain #withRegionSize(long) regions} that start at whitespace. The regions are decoded and scanned in parallel on
+ * a {@linkplain ForkJoinPool}, and their phrases are reported in the file order with byte offsets. The result is the same as
+ * the sequential scan one: a region scan goes on after the region end until it meets the next region scan.
+ * <pre>{@code
+ * NumberExtractor extractor = StringNumberParser.extractor();
+ * extractor.extract(reader, (start, end, value, languageCode) -> ...);
+ * extractor.extract(file, checkpoint, (start, end, value, languageCode) -> ..., offset -> checkpoint = offset);
+ * }</pre>
+ * An instance is immutable and thread-safe.
+ * Created on 18-Oct-26 at 2:50 PM.
+ *
+ * @see StringNumberParser#extractor(ParserConfig, String...)
+ */
+public final class NumberExtractor {
+	/**
+	 * Default size of the buffer a {@linkplain Reader} is read through, in characters.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	/**
+	 * Default size of a file region scanned by a single task, in bytes.
+	 */
+	public static final long DEFAULT_REGION_SIZE = 1L << 24;
+
+	private static final int MIN_BUFFER_SIZE = 64;
+
+	private final String[] languageCodes;
+	private final Lexicon[] lexicons;
+	private final int bufferSize;
+	private final ForkJoinPool pool;
+	private final long regionSize;
+
+	NumberExtractor(String[] languageCodes, Lexicon[] lexicons, int bufferSize, ForkJoinPool pool, long regionSize) {
+		this.languageCodes = languageCodes;
+		this.lexicons = lexicons;
+		this.bufferSize = bufferSize;
+		this.pool = pool;
+		this.regionSize = regionSize;
+	}
+
+	/**
+	 * Receives number phrases found in a text.
+	 */
+	@FunctionalInterface
+	public interface PhraseConsumer {
+		/**
+		 * @param start        offset of the phrase first character in the text (inclusive)
+		 * @param end          offset right after the phrase last character in the text (exclusive)
+		 * @param value        numeric form of the phrase
+		 * @param languageCode language code of the phrase
+		 */
+		void accept(long start, long end, long value, String languageCode);
+	}
+
+	/**
+	 * @param bufferSize size of the buffer a {@linkplain Reader} is read through, in characters. At least 64
+	 * @return extractor that reads through a buffer of the given size
+	 */
+	public NumberExtractor withBufferSize(int bufferSize) {
+		if(bufferSize < MIN_BUFFER_SIZE) {
+			throw new IllegalArgumentException("Buffer size " + bufferSize + " is less than " + MIN_BUFFER_SIZE);
+		}
+		return new NumberExtractor(languageCodes, lexicons, bufferSize, pool, regionSize);
+	}
+
+	/**
+	 * @param regionSize size of a file region scanned by a single task, in bytes. Regions are extended to the next whitespace
+	 * @return extractor that splits files into regions of the given size
+	 */
+	public NumberExtractor withRegionSize(long regionSize) {
+		if(regionSize <= 0) {
+			throw new IllegalArgumentException("Region size should be positive");
+		}
+		return new NumberExtractor(languageCodes, lexicons, bufferSize, pool, regionSize);
+	}
+
+	/**
+	 * @param pool pool the file regions are scanned on
+	 * @return extractor that uses the given pool
+	 */
+	public NumberExtractor withPool(@NotNull ForkJoinPool pool) {
+		return new NumberExtractor(languageCodes, lexicons, bufferSize, pool, regionSize);
+	}
+
+	/**
+	 * @return codes of the candidate languages in the order they win ties
+	 */
+	public List<String> getLanguageCodes() {
+		return Collections.unmodifiableList(Arrays.asList(languageCodes));
+	}
+
+	/**
+	 * Finds number phrases in the given text.
+	 *
+	 * @param input text
+	 * @return number phrases in the order they appear in the text
+	 */
+	public List<NumberPhrase> extract(@NotNull CharSequence input) {
+		final List<NumberPhrase> res = new ArrayList<>();
+		extract(input, (start, end, value, languageCode) -> res.add(new NumberPhrase(start, end, value, languageCode)));
+		return res;
+	}
+
+	/**
+	 * Finds number phrases in the given text.
+	 *
+	 * @param input    text
+	 * @param consumer receives the phrases in the order they appear in the text
+	 */
+	public void extract(@NotNull CharSequence input, @NotNull PhraseConsumer consumer) {
+		try {
+			new Scan(input, consumer).run();
+		} catch(IOException e) {
+			throw new UncheckedIOException(e); // cannot happen: nothing is read
+		}
+	}
+
+	/**
+	 * Finds number phrases in the text the given reader reads. The reader is read to its end, but is not closed.
+	 *
+	 * @param reader   text reader
+	 * @param consumer receives the phrases in the order they appear in the text. The offsets are counted in characters from the reader start
+	 * @throws IOException if the reader fails
+	 */
+	public void extract(@NotNull Reader reader, @NotNull PhraseConsumer consumer) throws IOException {
+		new Scan(reader, new char[bufferSize], consumer).run();
+	}
+
+	/**
+	 * Finds number phrases in the given UTF-8 file. Same as {@linkplain #extract(Path, long, PhraseConsumer, LongConsumer)}
+	 * from the file start with no checkpoints.
+	 */
+	public void extract(@NotNull Path file, @NotNull PhraseConsumer consumer) throws IOException {
+		extract(file, 0, consumer, offset -> {
+		});
+	}
+
+	/**
+	 * Finds number phrases in the given UTF-8 file in parallel. Regions are scanned by the pool while the phrases are reported
+	 * in the calling thread. At most twice as many regions as the pool parallelism are in progress, so memory doesn't depend on
+	 * the file size.
+	 *
+	 * @param file        UTF-8 text file
+	 * @param fromOffset  byte offset to start from, 0 or an offset reported to the checkpoint listener by a previous extraction.
+	 *                    From any other offset the phrase it falls in may be reported partially
+	 * @param consumer    receives the phrases in the order they appear in the file. The offsets are counted in bytes from the file start
+	 * @param checkpoints receives byte offsets, every time the phrases before the offset are reported. Extraction from such an offset
+	 *                    reports the rest of the phrases exactly
+	 * @throws IOException if the file cannot be read
+	 */
+	public void extract(@NotNull Path file, long fromOffset, @NotNull PhraseConsumer consumer, @NotNull LongConsumer checkpoints) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if(fromOffset < 0 || fromOffset > size) {
+				throw new IllegalArgumentException("Offset " + fromOffset + " is out of file bounds [0, " + size + "]");
+			}
+			final int maxPending = Math.max(2, pool.getParallelism() * 2);
+			final Deque<ForkJoinTask<Region>> pending = new ArrayDeque<>(maxPending);
+			long regionStart = MappedUtf8Source.charStart(channel, fromOffset, size);
+			long reported = regionStart;
+			try {
+				while(regionStart < size || !pending.isEmpty()) {
+					while(regionStart < size && pending.size() < maxPending) {
+						final long start = regionStart;
+						final long end = size - start <= regionSize ? size : MappedUtf8Source.whitespaceAfter(channel, start + regionSize, size);
+						pending.add(pool.submit(() -> scanRegion(channel, start, end, size)));
+						regionStart = end;
+					}
+					final Region region = pending.remove().get();
+					for(NumberPhrase phrase : region.phrases) {
+						// Phrases before the previous regions sync offset are reported by the previous regions.
+						if(phrase.getStart() >= reported) {
+							consumer.accept(phrase.getStart(), phrase.getEnd(), phrase.getValue(), phrase.getLanguageCode());
+						}
+					}
+					// The region scan is the sequential one after the reported offset only, so an earlier sync offset is not a sync.
+					reported = Math.max(reported, region.sync);
+					checkpoints.accept(reported);
+				}
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Extraction from " + file + " is interrupted");
+			} catch(ExecutionException e) {
+				if(e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IllegalStateException("Extraction from " + file + " failed", e.getCause());
+			} finally {
+				pending.forEach(task -> task.cancel(false));
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "NumberExtractor" + Arrays.toString(languageCodes);
+	}
+
+	// Characters that separate words of a phrase.
+	private static boolean isJoiner(char c) {
+		return c == '-' || Character.isWhitespace(c);
+	}
+
+	/**
+	 * Supplier of a text read through the scan buffer.
+	 */
+	interface TextSource {
+		/**
+		 * Reads characters like {@linkplain Reader#read(char[], int, int)} does.
+		 *
+		 * @param offsets if not <em>null</em>, receives offset of <em>chars[i]</em> in the text at index <em>i</em>
+		 * @return number of characters read, or -1 if there are no more characters
+		 */
+		int read(char[] chars, long[] offsets, int off, int len) throws IOException;
+
+		/**
+		 * @return offset right after the last character read
+		 */
+		long offset();
+	}
+
+	// Phrases of a file region and offset the region scan has synchronized with the next region one at.
+	private static final class Region {
+		private final List<NumberPhrase> phrases = new ArrayList<>();
+		private long sync;
+	}
+
+	private Region scanRegion(FileChannel channel, long start, long end, long size) throws IOException {
+		final Region res = new Region();
+		final Scan own = new Scan(new MappedUtf8Source(channel, start, size), new char[bufferSize],
+				(s, e, value, languageCode) -> res.phrases.add(new NumberPhrase(s, e, value, languageCode)));
+		// The phrase open at the region end belongs to the region.
+		long ownAt = own.position();
+		while(ownAt < end) {
+			ownAt = own.nextIdle();
+		}
+		if(end == size) {
+			res.sync = size;
+			return res;
+		}
+		// The next region is scanned from its start afresh, so it sees a phrase the region end splits as a new one.
+		// Once both scans are at the same offset with no phrase open, they go on the same way, and the next region phrases
+		// before that offset are dropped.
+		final Scan next = new Scan(new MappedUtf8Source(channel, end, size), new char[bufferSize], (s, e, value, languageCode) -> {
+		});
+		long nextAt = next.position();
+		while(ownAt != nextAt) {
+			if(ownAt < nextAt) {
+				ownAt = own.nextIdle();
+			} else {
+				nextAt = next.nextIdle();
+			}
+		}
+		res.sync = ownAt;
+		return res;
+	}
+
+	/**
+	 * Single pass over a text. The text is seen through a window: characters [base, base + length) are available.
+	 * Positions are absolute, i.e. counted in characters from the text start. Reported offsets are the positions,
+	 * unless the source reports its own offsets.
+	 */
+	private final class Scan {
+		private final PhraseConsumer consumer;
+		private final TextSource source; // null if the whole text is in the window
+		private final char[] buffer;
+		private final long[] offsets; // offsets of the buffer characters, null if they are the positions
+		private final CharSequence window;
+		private long base;
+		private int length;
+		private boolean eof;
+		private long pos;
+
+		// Runs of the current phrase, one per candidate language.
+		private final NumberFsm[] fsms = new NumberFsm[lexicons.length];
+		private final long[] completeEnds = new long[lexicons.length]; // end of the longest converted prefix or -1
+		private final long[] completeValues = new long[lexicons.length];
+		private long alive; // runs that haven't failed, 0 if there is no current phrase
+		private long phraseStart; // reported offset
+		private long firstWordEnd;
+
+		Scan(CharSequence input, PhraseConsumer consumer) {
+			this.consumer = consumer;
+			this.source = null;
+			this.buffer = null;
+			this.offsets = null;
+			this.window = input;
+			this.length = input.length();
+			init();
+		}
+
+		Scan(Reader reader, char[] buffer, PhraseConsumer consumer) {
+			this(new TextSource() {
+				private long offset;
+
+				@Override
+				public int read(char[] chars, long[] offsets, int off, int len) throws IOException {
+					final int res = reader.read(chars, off, len);
+					offset += Math.max(res, 0);
+					return res;
+				}
+
+				@Override
+				public long offset() {
+					return offset;
+				}
+			}, buffer, null, consumer);
+		}
+
+		Scan(MappedUtf8Source source, char[] buffer, PhraseConsumer consumer) {
+			this(source, buffer, new long[buffer.length], consumer);
+		}
+
+		private Scan(TextSource source, char[] buffer, long[] offsets, PhraseConsumer consumer) {
+			this.consumer = consumer;
+			this.source = source;
+			this.buffer = buffer;
+			this.offsets = offsets;
+			this.window = new CharSequence() {
+				@Override
+				public int length() {
+					return length;
+				}
+
+				@Override
+				public char charAt(int index) {
+					return buffer[index];
+				}
+
+				@Override
+				public CharSequence subSequence(int start, int end) {
+					return new String(buffer, start, end - start);
+				}
+			};
+			init();
+		}
+
+		private void init() {
+			for(int id = 0; id < fsms.length; id++) {
+				fsms[id] = new NumberFsm();
+			}
+		}
+
+		void run() throws IOException {
+			boolean more = true;
+			while(more) {
+				more = step();
+			}
+		}
+
+		/**
+		 * Scans up to the next offset where no phrase is open.
+		 *
+		 * @return reported offset the scan has stopped at
+		 */
+		long nextIdle() throws IOException {
+			boolean more = step();
+			while(more && alive != 0) {
+				more = step();
+			}
+			return position();
+		}
+
+		/**
+		 * @return reported offset of the scan position
+		 */
+		long position() {
+			return offsetOf(pos);
+		}
+
+		/**
+		 * Scans the gap before the next word and the word, or reports the current phrase.
+		 *
+		 * @return <em>false</em> if the text end is reached
+		 */
+		private boolean step() throws IOException {
+			// Gap between words
+			boolean broken = false;
+			while(true) {
+				if(pos == limit()) {
+					final int read = fill(keep(pos));
+					if(read < 0) {
+						break;
+					}
+					if(read == 0) {
+						// The phrase and the gap after it don't fit the buffer.
+						broken = true;
+						break;
+					}
+					continue;
+				}
+				final char c = charAt(pos);
+				if(Character.isLetter(c)) {
+					break;
+				}
+				broken |= !isJoiner(c);
+				pos++;
+			}
+			if(alive != 0 && (broken || pos == limit())) {
+				// Punctuation mark or the text end
+				pos = close();
+				return true;
+			}
+			if(pos == limit()) {
+				return false;
+			}
+			// Word
+			final long wordStart = pos;
+			long wordEnd = pos;
+			boolean overflow = false;
+			while(true) {
+				if(wordEnd == limit()) {
+					final int read = fill(keep(wordStart));
+					if(read < 0) {
+						break;
+					}
+					if(read == 0) {
+						overflow = true;
+						break;
+					}
+					continue;
+				}
+				if(!Character.isLetter(charAt(wordEnd))) {
+					break;
+				}
+				wordEnd++;
+			}
+			if(overflow) {
+				if(alive != 0) {
+					// The phrase doesn't fit the buffer: it is reported as is, and the scan goes on after it.
+					pos = close();
+				} else {
+					// The word doesn't fit the buffer, so it is not a number word.
+					pos = skipLetters(wordEnd);
+				}
+				return true;
+			}
+			pos = accept(wordStart, wordEnd);
+			return true;
+		}
+
+		// Feeds the given word to the runs and returns offset to go on from.
+		private long accept(long wordStart, long wordEnd) {
+			final int start = (int) (wordStart - base), end = (int) (wordEnd - base);
+			if(alive == 0) {
+				for(int id = 0; id < fsms.length; id++) {
+					completeEnds[id] = -1;
+					if(advance(fsms[id].reset(), lexicons[id].lookup(window, start, end), id, start, end, wordEnd)) {
+						alive |= 1L << id;
+					}
+				}
+				phraseStart = offsetOf(wordStart);
+				firstWordEnd = wordEnd;
+				return wordEnd;
+			}
+			for(long m = alive; m != 0; m &= m - 1) {
+				final int id = Long.numberOfTrailingZeros(m);
+				if(!advance(fsms[id], lexicons[id].lookup(window, start, end), id, start, end, wordEnd)) {
+					alive &= ~(1L << id);
+				}
+			}
+			return alive == 0 ? close() : wordEnd;
+		}
+
+		private boolean advance(NumberFsm fsm, Utils.StateWithNumber event, int id, int start, int end, long wordEnd) {
+			if(!fsm.accept(event, start, end, false)) {
+				return false;
+			}
+			if(event.role != Utils.TokenRole.SKIP && fsm.isComplete()) {
+				completeEnds[id] = wordEnd;
+				completeValues[id] = fsm.value();
+			}
+			return true;
+		}
+
+		// Reports the current phrase, if any run has converted it, and returns offset to go on from.
+		// The words after the reported phrase are scanned again, since the word that stopped the phrase may start a new one.
+		private long close() {
+			alive = 0;
+			int winner = -1;
+			for(int id = 0; id < completeEnds.length; id++) {
+				if(completeEnds[id] >= 0 && (winner < 0 || completeEnds[id] > completeEnds[winner])) {
+					winner = id;
+				}
+			}
+			if(winner < 0) {
+				return firstWordEnd;
+			}
+			consumer.accept(phraseStart, offsetOf(completeEnds[winner]), completeValues[winner], languageCodes[winner]);
+			return completeEnds[winner];
+		}
+
+		// Skips letters that don't fit the buffer and returns offset of the first non-letter.
+		private long skipLetters(long from) throws IOException {
+			long pos = from;
+			while(true) {
+				if(pos == limit()) {
+					if(fill(pos) < 0) {
+						return pos;
+					}
+					continue;
+				}
+				if(!Character.isLetter(charAt(pos))) {
+					return pos;
+				}
+				pos++;
+			}
+		}
+
+		// The current phrase may be scanned again from its first word end.
+		private long keep(long pos) {
+			return alive != 0 ? firstWordEnd : pos;
+		}
+
+		private long limit() {
+			return base + length;
+		}
+
+		private char charAt(long offset) {
+			return window.charAt((int) (offset - base));
+		}
+
+		// Reported offset of the given position. The position should be in the window or right after it.
+		private long offsetOf(long position) {
+			if(offsets == null) {
+				return position;
+			}
+			return position == limit() ? source.offset() : offsets[(int) (position - base)];
+		}
+
+		/**
+		 * Reads more characters into the window. Characters before the given offset are dropped.
+		 *
+		 * @return number of characters read, 0 if the buffer is full, or -1 if there are no more characters
+		 */
+		private int fill(long keepFrom) throws IOException {
+			if(source == null || eof) {
+				return -1;
+			}
+			final int drop = (int) (keepFrom - base);
+			if(drop > 0) {
+				System.arraycopy(buffer, drop, buffer, 0, length - drop);
+				if(offsets != null) {
+					System.arraycopy(offsets, drop, offsets, 0, length - drop);
+				}
+				length -= drop;
+				base = keepFrom;
+			}
+			if(length == buffer.length) {
+				return 0;
+			}
+			final int read = source.read(buffer, offsets, length, buffer.length - length);
+			if(read < 0) {
+				eof = true;
+				return -1;
+			}
+			length += read;
+			return read;
+		}
+	}
+}
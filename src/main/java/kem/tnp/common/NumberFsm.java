@@ -0,0 +1,182 @@
+package kem.tnp.common;
+
+/**
+ * Single run of the number parsing FSM: it consumes looked up tokens one by one and accumulates the number value.
+ * Keeping the run state in an object (rather than in local variables of a parsing loop) lets several runs advance side by side,
+ * e.g. one per candidate language over the same tokens.<p/>
+ * An instance is not thread-safe and is meant to be {@linkplain #reset() reset} and reused.
+ * Created on 18-Oct-26 at 5:20 AM.
+ */
+final class NumberFsm {
+	private long res;
+	private long accum;
+	private Utils.StateWithNumber numberedState;
+	private ParsingState previousState;
+	private int articleStart, articleEnd; // Pending "a" of "a hundred" or "a million"
+	private ParseResult.Status status;     // null while the run is in progress
+	private int errorStart, errorEnd;
+	private int skippedTokens;
+
+	NumberFsm() {
+		reset();
+	}
+
+	/**
+	 * Prepares this instance for a new run.
+	 *
+	 * @return this instance
+	 */
+	NumberFsm reset() {
+		res = 0L;
+		accum = 0L;
+		numberedState = Utils.INIT;
+		previousState = Utils.INIT.state;
+		articleStart = -1;
+		articleEnd = -1;
+		status = null;
+		errorStart = -1;
+		errorEnd = -1;
+		skippedTokens = 0;
+		return this;
+	}
+
+	/**
+	 * Advances the FSM with the given [start, end) token.
+	 *
+	 * @param event   looked up token or {@linkplain Utils#ERROR} if the token is not recognized
+	 * @param start   token start offset (inclusive)
+	 * @param end     token end offset (exclusive)
+	 * @param lenient whether unrecognized tokens should be skipped
+	 * @return <em>false</em> if the run has failed (now or before)
+	 */
+	boolean accept(Utils.StateWithNumber event, int start, int end, boolean lenient) {
+		if(status != null) {
+			return status == ParseResult.Status.OK;
+		}
+		if(event == Utils.ERROR) {
+			if(lenient) {
+				skippedTokens++;
+				return true;
+			}
+			return fail(ParseResult.Status.UNRECOGNIZED_TOKEN, start, end);
+		}
+		switch(event.role) {
+			case SKIP: // "one hundred and seven" -> "one hundred seven"
+				if(numberedState == Utils.INIT || articleStart >= 0) {
+					return fail(ParseResult.Status.UNEXPECTED_TOKEN, start, end);
+				}
+				return true;
+			case ARTICLE: // "a" is "one" if followed by "hundred" or by a group
+				if(articleStart >= 0 || !numberedState.state.isStateAllowed(Utils.ARTICLE_ONE.state)) {
+					return fail(ParseResult.Status.UNEXPECTED_TOKEN, start, end);
+				}
+				articleStart = start;
+				articleEnd = end;
+				return true;
+		}
+		if(articleStart >= 0) {
+			if(event.role != Utils.TokenRole.MULTIPLIER && event.state != ParsingState.S_Group) {
+				return fail(ParseResult.Status.UNEXPECTED_TOKEN, articleStart, articleEnd);
+			}
+			previousState = numberedState.state;
+			numberedState = Utils.ARTICLE_ONE;
+			accum += Utils.ARTICLE_ONE.number;
+			articleStart = -1;
+		}
+		if(event.role == Utils.TokenRole.MULTIPLIER && numberedState.state == ParsingState.S_1_9 && previousState == ParsingState.S_Group) {
+			// "five hundred": the ones value that opens a group becomes hundreds
+			accum *= event.number;
+			previousState = numberedState.state;
+			numberedState = event;
+			return true;
+		}
+		// Get to next state based on the current string number
+		if(!numberedState.state.isStateAllowed(event.state)) {
+			return fail(ParseResult.Status.UNEXPECTED_TOKEN, start, end);
+		}
+		previousState = numberedState.state;
+		numberedState = event;
+		// This is the "millions", "thousands" delimiter.
+		if(numberedState.state == ParsingState.S_Group) {
+			accum *= numberedState.number; // Multiply accumulated value by 10^x
+			res += accum;
+			accum = 0L; // Reset accumulated value
+		} else {
+			accum += numberedState.number;
+		}
+		return true;
+	}
+
+	/**
+	 * Completes the run: there are no more tokens.
+	 *
+	 * @param inputStart input range start offset, reported if the input contains no number tokens
+	 * @return <em>true</em> if the run has succeeded
+	 */
+	boolean end(int inputStart) {
+		if(status != null) {
+			return status == ParseResult.Status.OK;
+		}
+		if(articleStart >= 0) {
+			return fail(ParseResult.Status.INCOMPLETE, articleStart, articleEnd);
+		}
+		if(numberedState == Utils.INIT) {
+			return fail(ParseResult.Status.EMPTY_INPUT, inputStart, inputStart);
+		}
+		res += accum;
+		accum = 0L;
+		status = ParseResult.Status.OK;
+		return true;
+	}
+
+	/**
+	 * @return <em>true</em> if the tokens accepted so far make a number by themselves, i.e. the run has neither failed nor waits
+	 * for the word that follows an article
+	 */
+	boolean isComplete() {
+		return status == null && articleStart < 0 && numberedState != Utils.INIT;
+	}
+
+	/**
+	 * @return value of the tokens accepted so far. It is meaningful if the run {@linkplain #isComplete() is complete}
+	 */
+	long value() {
+		return res + accum;
+	}
+
+	/**
+	 * @return <em>true</em> if the run has failed
+	 */
+	boolean isFailed() {
+		return status != null && status != ParseResult.Status.OK;
+	}
+
+	/**
+	 * @return offset of the token the run has failed at or -1
+	 */
+	int getErrorStart() {
+		return errorStart;
+	}
+
+	int getSkippedTokens() {
+		return skippedTokens;
+	}
+
+	/**
+	 * Copies outcome of the {@linkplain #end(int) completed} run to the given result holder.
+	 *
+	 * @param result result holder
+	 * @return the number value or {@linkplain ParseResult#NO_VALUE} if the run has failed
+	 */
+	long writeTo(ParseResult result) {
+		result.setSkippedTokens(skippedTokens);
+		return status == ParseResult.Status.OK ? result.success(res) : result.failure(status, errorStart, errorEnd);
+	}
+
+	private boolean fail(ParseResult.Status status, int start, int end) {
+		this.status = status;
+		this.errorStart = start;
+		this.errorEnd = end;
+		return false;
+	}
+}
@@ -0,0 +1,27 @@
+package kem.tnp.common;
+
+import lombok.Value;
+
+/**
+ * Number phrase found in a text by {@linkplain NumberExtractor}, e.g. "twenty-five thousand" in "I paid twenty-five thousand dollars".
+ * Created on 18-Oct-26 at 2:40 PM.
+ */
+@Value
+public class NumberPhrase {
+	/**
+	 * Offset of the phrase first character in the text (inclusive).
+	 */
+	long start;
+	/**
+	 * Offset right after the phrase last character in the text (exclusive).
+	 */
+	long end;
+	/**
+	 * Numeric form of the phrase.
+	 */
+	long value;
+	/**
+	 * Language code of the phrase.
+	 */
+	String languageCode;
+}
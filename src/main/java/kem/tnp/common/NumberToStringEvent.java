@@ -0,0 +1,19 @@
+package kem.tnp.common;
+
+/**
+ * Event of {@linkplain StringNumberParser#numberToString(Long, String, ParserConfig)} and
+ * {@linkplain StringNumberParser#render(long, String, ParserConfig, StringBuilder)} calls, recorded as <code>kem.tnp.NumberToString</code> JFR event.
+ * Input length and token count describe the produced text.
+ * Created on 18-Oct-26 at 11:35 AM.
+ */
+final class NumberToStringEvent extends ParserEvent {
+	static final String NAME = "kem.tnp.NumberToString";
+
+	long value;
+	long lookupNanos;
+	long renderNanos;
+
+	NumberToStringEvent() {
+		super(RECORDINGS == null ? null : RECORDINGS.numberToString());
+	}
+}
@@ -0,0 +1,237 @@
+package kem.tnp.common;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bulk converter that splits arrays and lists of inputs into chunks and converts the chunks in parallel on a {@linkplain ForkJoinPool}.
+ * Inputs not longer than the {@linkplain #withMinChunkSize(int) minimal chunk size} are converted sequentially in the calling thread,
+ * so small batches don't pay for the task scheduling.<p/>
+ * The parser variants are immutable and shared by all the workers. Every worker thread keeps its own reusable context
+ * (a {@linkplain ParseResult} and a render buffer), so the conversion doesn't allocate per input, and the workers share nothing but
+ * the input and output arrays. Chunks of the failure bitmap are aligned to whole words, so the workers never write the same word.
+ * <pre>{@code
+ * ParallelNumberParser bulk = StringNumberParser.parallel().withMinChunkSize(16_384);
+ * int failed = bulk.textToNumbers(column, values, failures, "en");
+ * String[] texts = bulk.numbersToStrings(values, "en");
+ * }</pre>
+ * An instance is immutable and thread-safe.
+ * Created on 18-Oct-26 at 1:30 PM.
+ *
+ * @see StringNumberParser#parallel()
+ */
+public final class ParallelNumberParser {
+	/**
+	 * Default minimal number of inputs a chunk consists of.
+	 */
+	public static final int DEFAULT_MIN_CHUNK_SIZE = 4096;
+
+	// Per worker thread conversion context.
+	private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+	private final ForkJoinPool pool;
+	private final ParserConfig config;
+	private final int minChunkSize;
+
+	ParallelNumberParser(ForkJoinPool pool, ParserConfig config, int minChunkSize) {
+		this.pool = pool;
+		this.config = config;
+		this.minChunkSize = minChunkSize;
+	}
+
+	/**
+	 * @param minChunkSize minimal number of inputs a chunk consists of. It is rounded up to a multiple of 64
+	 * @return converter that splits inputs into chunks of at least the given size
+	 */
+	public ParallelNumberParser withMinChunkSize(int minChunkSize) {
+		if(minChunkSize <= 0) {
+			throw new IllegalArgumentException("Minimal chunk size should be positive");
+		}
+		final long aligned = (minChunkSize + Long.SIZE - 1L) / Long.SIZE * Long.SIZE;
+		return new ParallelNumberParser(pool, config, (int) Math.min(aligned, Integer.MAX_VALUE / Long.SIZE * Long.SIZE));
+	}
+
+	/**
+	 * @param pool pool the chunks are converted on
+	 * @return converter that uses the given pool
+	 */
+	public ParallelNumberParser withPool(@NotNull ForkJoinPool pool) {
+		return new ParallelNumberParser(pool, config, minChunkSize);
+	}
+
+	/**
+	 * @param config configuration parameters. Should not be <em>null</em>
+	 * @return converter that uses parser variants for the given configuration
+	 */
+	public ParallelNumberParser withConfig(@NotNull ParserConfig config) {
+		return new ParallelNumberParser(pool, config, minChunkSize);
+	}
+
+	public int getMinChunkSize() {
+		return minChunkSize;
+	}
+
+	/**
+	 * Converts array of text inputs to their numeric forms. Same as {@linkplain #textToNumbers(List, long[], BitSet, String...)}.
+	 */
+	public int textToNumbers(@NotNull CharSequence[] inputs, @NotNull long[] out, @NotNull BitSet failures, @Nullable String... defaultLanguageCode) {
+		return textToNumbers(Arrays.asList(inputs), out, failures, defaultLanguageCode);
+	}
+
+	/**
+	 * Converts column of text inputs to their numeric forms in parallel. The results are the same as
+	 * {@linkplain StringNumberParser#textToNumbers(List, long[], BitSet, ParserConfig, String...)} ones: the column language is inferred once,
+	 * then the chunks are converted by its parser with per-input fallback.
+	 * The inputs list should support fast random access, e.g. {@linkplain java.util.ArrayList}.
+	 *
+	 * @param inputs   numbers in text form. <em>null</em> elements are reported as failures
+	 * @param out      receives numeric form of <em>inputs[i]</em> at index <em>i</em>, or {@linkplain ParseResult#NO_VALUE} if it cannot be converted.
+	 *                 Should be at least as long as the inputs list
+	 * @param failures receives set bit <em>i</em> if <em>inputs[i]</em> cannot be converted, clear bit otherwise. Bits beyond the inputs are left as is
+	 * @return number of inputs that couldn't be converted
+	 */
+	public int textToNumbers(@NotNull List<? extends CharSequence> inputs, @NotNull long[] out, @NotNull BitSet failures, @Nullable String... defaultLanguageCode) {
+		final int size = inputs.size();
+		ColumnConverter.checkOutput(size, out.length);
+		final ColumnConverter converter = ColumnConverter.of(inputs, config, defaultLanguageCode);
+		final long[] failureWords = new long[ColumnConverter.words(size)];
+		final int res = size <= minChunkSize
+				? converter.convert(inputs, 0, size, out, failureWords, CONTEXT.get().result)
+				: pool.invoke(new ParseTask(converter, inputs, 0, size, out, failureWords, minChunkSize));
+		failures.clear(0, size);
+		failures.or(BitSet.valueOf(failureWords));
+		return res;
+	}
+
+	/**
+	 * Converts the given numbers to their text forms in parallel.
+	 *
+	 * @param inputs       numbers
+	 * @param languageCode language code (e.g. "en", "fr", "it", "ru" etc)
+	 * @return text forms of the given numbers
+	 * @throws LanguageException if there is no parser for the given language
+	 */
+	public String[] numbersToStrings(@NotNull long[] inputs, @NotNull String languageCode) throws LanguageException {
+		final String[] res = new String[inputs.length];
+		numbersToStrings(inputs, languageCode, res);
+		return res;
+	}
+
+	/**
+	 * Converts the given numbers to their text forms in parallel.
+	 *
+	 * @param inputs       numbers
+	 * @param languageCode language code (e.g. "en", "fr", "it", "ru" etc)
+	 * @param out          receives text form of <em>inputs[i]</em> at index <em>i</em>. Should be at least as long as the inputs array
+	 * @throws LanguageException if there is no parser for the given language
+	 */
+	public void numbersToStrings(@NotNull long[] inputs, @NotNull String languageCode, @NotNull String[] out) throws LanguageException {
+		ColumnConverter.checkOutput(inputs.length, out.length);
+		final LangNumberParser parser = StringNumberParser.getLangNumberParser(languageCode, config)
+				.orElseThrow(() -> new LanguageException("Couldn't find handler for language " + languageCode));
+		if(inputs.length <= minChunkSize) {
+			render(parser, languageCode, inputs, 0, inputs.length, out);
+		} else {
+			pool.invoke(new RenderTask(parser, languageCode, inputs, 0, inputs.length, out, minChunkSize));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ParallelNumberParser[parallelism=" + pool.getParallelism() + ", minChunkSize=" + minChunkSize + ", config=" + config + "]";
+	}
+
+	private static void render(LangNumberParser parser, String languageCode, long[] inputs, int from, int to, String[] out) {
+		final ParserMetrics metrics = Metrics.current();
+		final StringBuilder text = CONTEXT.get().text;
+		for(int i = from; i < to; i++) {
+			final long started = metrics == null ? 0L : System.nanoTime();
+			text.setLength(0);
+			out[i] = parser.render(inputs[i], text).toString();
+			if(metrics != null) {
+				metrics.record(ParserMetrics.Operation.RENDER, languageCode, System.nanoTime() - started, true);
+			}
+		}
+	}
+
+	// Splits [from, to) range in halves at a multiple of 64, so chunks never share a word of the failure bitmap.
+	private static int split(int from, int to) {
+		return ((from + to) >>> 1) & -Long.SIZE;
+	}
+
+	private static final class Context {
+		private final ParseResult result = new ParseResult();
+		private final StringBuilder text = new StringBuilder(256);
+	}
+
+	private static final class ParseTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		private final ColumnConverter converter;
+		private final List<? extends CharSequence> inputs;
+		private final int from, to;
+		private final long[] out;
+		private final long[] failureWords;
+		private final int minChunkSize;
+
+		ParseTask(ColumnConverter converter, List<? extends CharSequence> inputs, int from, int to, long[] out, long[] failureWords, int minChunkSize) {
+			this.converter = converter;
+			this.inputs = inputs;
+			this.from = from;
+			this.to = to;
+			this.out = out;
+			this.failureWords = failureWords;
+			this.minChunkSize = minChunkSize;
+		}
+
+		@Override
+		protected Integer compute() {
+			final int mid = split(from, to);
+			if(to - from < 2 * minChunkSize || mid <= from) {
+				return converter.convert(inputs, from, to, out, failureWords, CONTEXT.get().result);
+			}
+			final ParseTask right = new ParseTask(converter, inputs, mid, to, out, failureWords, minChunkSize);
+			right.fork();
+			final int res = new ParseTask(converter, inputs, from, mid, out, failureWords, minChunkSize).compute();
+			return res + right.join();
+		}
+	}
+
+	private static final class RenderTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final LangNumberParser parser;
+		private final String languageCode;
+		private final long[] inputs;
+		private final int from, to;
+		private final String[] out;
+		private final int minChunkSize;
+
+		RenderTask(LangNumberParser parser, String languageCode, long[] inputs, int from, int to, String[] out, int minChunkSize) {
+			this.parser = parser;
+			this.languageCode = languageCode;
+			this.inputs = inputs;
+			this.from = from;
+			this.to = to;
+			this.out = out;
+			this.minChunkSize = minChunkSize;
+		}
+
+		@Override
+		protected void compute() {
+			final int mid = split(from, to);
+			if(to - from < 2 * minChunkSize || mid <= from) {
+				render(parser, languageCode, inputs, from, to, out);
+				return;
+			}
+			invokeAll(new RenderTask(parser, languageCode, inputs, from, mid, out, minChunkSize),
+					new RenderTask(parser, languageCode, inputs, mid, to, out, minChunkSize));
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package kem.tnp.common;
+
+/**
+ * Reusable holder of a text to number conversion outcome. It is filled by {@linkplain LangNumberParser#parseLong(CharSequence, ParseResult)}
+ * instead of throwing an exception, so a failed conversion costs as much as a successful one:
+ * <pre>{@code
+ * ParseResult result = new ParseResult();
+ * long n = parser.parseLong(input, result);
+ * if(n == ParseResult.NO_VALUE) {
+ *     // result.getStatus(), result.getErrorStart(), result.getErrorEnd() describe the failure
+ * }
+ * }</pre>
+ * An instance is not thread-safe. It is meant to be allocated once per thread (or per worker) and reused for every call.
+ * Created on 18-Oct-26 at 2:20 AM.
+ */
+public final class ParseResult {
+	/**
+	 * Sentinel value returned by <code>parseLong</code> methods when the input cannot be converted.
+	 */
+	public static final long NO_VALUE = Long.MIN_VALUE;
+
+	public enum Status {
+		/**
+		 * The input was converted.
+		 */
+		OK,
+		/**
+		 * The input contains no tokens.
+		 */
+		EMPTY_INPUT,
+		/**
+		 * The input contains a word that is not a number word, e.g. "zaza" in "five zaza".
+		 */
+		UNRECOGNIZED_TOKEN,
+		/**
+		 * The input contains a number word in a wrong position, e.g. "five" in "twelve five".
+		 */
+		UNEXPECTED_TOKEN,
+		/**
+		 * The input ends in the middle of a number, e.g. "a" in "five thousand a".
+		 */
+		INCOMPLETE,
+		/**
+		 * The input language couldn't be detected or has no parser.
+		 */
+		UNSUPPORTED_LANGUAGE
+	}
+
+	private boolean lenient;
+	private Status status = Status.OK;
+	private long value = NO_VALUE;
+	private int errorStart = -1;
+	private int errorEnd = -1;
+	private int skippedTokens;
+	private String languageCode;
+
+	/**
+	 * Creates strict result holder: conversion fails on the first unrecognized token.
+	 */
+	public ParseResult() {
+		this(false);
+	}
+
+	/**
+	 * Creates result holder.
+	 *
+	 * @param lenient if <em>true</em> then unrecognized tokens (e.g. "zaza" in "five thousand zaza two") are skipped and counted
+	 *                in {@linkplain #getSkippedTokens()} instead of failing the conversion
+	 */
+	public ParseResult(boolean lenient) {
+		this.lenient = lenient;
+	}
+
+	/**
+	 * Clears outcome of the previous conversion. Leniency is preserved.
+	 *
+	 * @return this instance
+	 */
+	public ParseResult reset() {
+		status = Status.OK;
+		value = NO_VALUE;
+		errorStart = -1;
+		errorEnd = -1;
+		skippedTokens = 0;
+		languageCode = null;
+		return this;
+	}
+
+	/**
+	 * Records successful conversion.
+	 *
+	 * @param value numeric form of the input
+	 * @return the given value
+	 */
+	public long success(long value) {
+		this.status = Status.OK;
+		this.value = value;
+		return value;
+	}
+
+	/**
+	 * Records failed conversion.
+	 *
+	 * @param status     failure reason
+	 * @param errorStart offending token start offset (inclusive) or -1
+	 * @param errorEnd   offending token end offset (exclusive) or -1
+	 * @return {@linkplain #NO_VALUE}
+	 */
+	public long failure(Status status, int errorStart, int errorEnd) {
+		this.status = status;
+		this.value = NO_VALUE;
+		this.errorStart = errorStart;
+		this.errorEnd = errorEnd;
+		return NO_VALUE;
+	}
+
+	void setSkippedTokens(int skippedTokens) {
+		this.skippedTokens = skippedTokens;
+	}
+
+	void setLanguageCode(String languageCode) {
+		this.languageCode = languageCode;
+	}
+
+	public boolean isLenient() {
+		return lenient;
+	}
+
+	public ParseResult setLenient(boolean lenient) {
+		this.lenient = lenient;
+		return this;
+	}
+
+	public boolean isSuccess() {
+		return status == Status.OK;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return numeric form of the input or {@linkplain #NO_VALUE} if the conversion failed
+	 */
+	public long getValue() {
+		return value;
+	}
+
+	/**
+	 * @return offending token start offset (inclusive) or -1 if there is no such token
+	 */
+	public int getErrorStart() {
+		return errorStart;
+	}
+
+	/**
+	 * @return offending token end offset (exclusive) or -1 if there is no such token
+	 */
+	public int getErrorEnd() {
+		return errorEnd;
+	}
+
+	/**
+	 * @return number of unrecognized tokens skipped in lenient mode
+	 */
+	public int getSkippedTokens() {
+		return skippedTokens;
+	}
+
+	/**
+	 * @return language code of the parser that handled the input, if known
+	 */
+	public String getLanguageCode() {
+		return languageCode;
+	}
+
+	/**
+	 * Builds human-readable description of the failure. This method allocates and is meant for error reporting only.
+	 *
+	 * @param input the converted input
+	 * @return failure description or empty string if the conversion succeeded
+	 */
+	public String errorMessage(CharSequence input) {
+		switch(status) {
+			case OK:
+				return "";
+			case EMPTY_INPUT:
+				return "Unrecognized token \"\"";
+			case UNSUPPORTED_LANGUAGE:
+				return languageCode == null ? "Couldn't detect language" : "Couldn't find handler for language " + languageCode;
+			default:
+				return String.format("Unrecognized token \"%s\"", input.subSequence(errorStart, errorEnd));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return status == Status.OK ? status + " (" + value + ")" : status + " [" + errorStart + ", " + errorEnd + ")";
+	}
+}
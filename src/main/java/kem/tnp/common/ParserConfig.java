@@ -0,0 +1,109 @@
+package kem.tnp.common;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import javax.validation.constraints.NotNull;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Immutable set of parser configuration parameters, e.g. ["onePrefix"->"a", "useHyphen"->"false"].
+ * Keys are case-insensitive, values are kept in their string form. Two configurations with the same parameters are equal,
+ * so an instance can be used as a key of pre-configured parser variants.
+ * Created on 17-Oct-26 at 11:05 PM.
+ *
+ * @see LangNumberParser#configure(ParserConfig)
+ */
+@ToString
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
+public final class ParserConfig {
+	/**
+	 * Configuration without parameters. Parsers use their default settings with this configuration.
+	 */
+	public static final ParserConfig EMPTY = new ParserConfig(Collections.emptyMap());
+
+	private final Map<String, Object> params;
+
+	private ParserConfig(Map<String, Object> params) {
+		this.params = params;
+	}
+
+	/**
+	 * Creates configuration from the given parameters.
+	 *
+	 * @param params configuration parameters. Should not be <em>null</em>
+	 * @return configuration with the given parameters
+	 */
+	public static ParserConfig of(@NotNull Map<String, ?> params) {
+		return params.isEmpty() ? EMPTY : EMPTY.with(params);
+	}
+
+	/**
+	 * Creates configuration with the single given parameter.
+	 *
+	 * @param key   configuration key
+	 * @param value configuration value
+	 * @return configuration with the given parameter
+	 */
+	public static ParserConfig of(@NotNull String key, @NotNull Object value) {
+		return EMPTY.with(key, value);
+	}
+
+	/**
+	 * Creates a copy of this configuration with the given parameter added or replaced.
+	 *
+	 * @param key   configuration key
+	 * @param value configuration value
+	 * @return new configuration
+	 */
+	public ParserConfig with(@NotNull String key, @NotNull Object value) {
+		return with(Collections.singletonMap(key, value));
+	}
+
+	/**
+	 * Creates a copy of this configuration with the given parameters added or replaced.
+	 *
+	 * @param params configuration parameters. Should not be <em>null</em>
+	 * @return new configuration
+	 */
+	public ParserConfig with(@NotNull Map<String, ?> params) {
+		if(params.isEmpty()) {
+			return this;
+		}
+		final Map<String, Object> res = new TreeMap<>(this.params);
+		params.forEach((key, value) -> res.put(key.toLowerCase(), String.valueOf(value)));
+		return new ParserConfig(Collections.unmodifiableMap(res));
+	}
+
+	/**
+	 * Retrieves value of the given configuration key.
+	 *
+	 * @param key configuration key (case-insensitive)
+	 * @return configuration value in its string form
+	 */
+	public Optional<String> get(@NotNull String key) {
+		return Optional.ofNullable((String) params.get(key.toLowerCase()));
+	}
+
+	public String getString(@NotNull String key, String defaultValue) {
+		return get(key).orElse(defaultValue);
+	}
+
+	public boolean getBoolean(@NotNull String key, boolean defaultValue) {
+		return get(key).map(Boolean::parseBoolean).orElse(defaultValue);
+	}
+
+	public boolean isEmpty() {
+		return params.isEmpty();
+	}
+
+	/**
+	 * @return unmodifiable map of the configuration parameters. Keys are lower-cased, values are strings.
+	 */
+	public Map<String, Object> asMap() {
+		return params;
+	}
+}
@@ -0,0 +1,120 @@
+package kem.tnp.common;
+
+import javax.annotation.Nullable;
+
+/**
+ * Base of the Java Flight Recorder events the library emits. The library code fills these events, and they are recorded with
+ * <code>jdk.jfr</code> events that are loaded by name only if the module is available, so the library runs on Java 8 as well.
+ * Like any JFR event, the events are configured in a recording settings file (.jfc) or on the command line by their names, e.g.
+ * <pre>
+ * -XX:StartFlightRecording:settings=profile,kem.tnp.TextToNumber#threshold=100us
+ * </pre>
+ * While no recording is running (or JFR is not available), an event costs a single check, and neither time is measured nor tokens are counted.
+ * Created on 18-Oct-26 at 11:20 AM.
+ */
+abstract class ParserEvent {
+	// Outcomes
+	static final String SUCCESS = "SUCCESS";
+	static final String UNKNOWN_LANGUAGE = "UNKNOWN_LANGUAGE";
+	static final String UNRECOGNIZED_TOKEN = "UNRECOGNIZED_TOKEN";
+	static final String FAILURE = "FAILURE";
+
+	// Factory of the JFR events, null if JFR is not available.
+	@Nullable
+	static final Recordings RECORDINGS = loadRecordings();
+
+	String language;
+	int inputLength;
+	int tokenCount;
+	String outcome;
+
+	@Nullable
+	private final Recording recording;
+
+	ParserEvent(@Nullable Recording recording) {
+		this.recording = recording;
+	}
+
+	/**
+	 * @return <em>true</em> if the event is recorded
+	 */
+	boolean isEnabled() {
+		return recording != null && recording.isEnabled();
+	}
+
+	/**
+	 * Starts timing of the event. Should be called only if the event {@linkplain #isEnabled() is enabled}.
+	 */
+	void begin() {
+		recording.begin();
+	}
+
+	/**
+	 * Sets the outcome according to the given exception.
+	 */
+	void failed(RuntimeException e) {
+		outcome = e instanceof UnrecognizedTokenException ? UNRECOGNIZED_TOKEN
+				: e instanceof LanguageException ? UNKNOWN_LANGUAGE
+				: FAILURE;
+	}
+
+	/**
+	 * Ends the event and commits it if the event duration exceeds the configured threshold.
+	 * Text statistics are collected just before the commit. Should be called only if the event {@linkplain #isEnabled() is enabled}.
+	 *
+	 * @param text  the text that was converted, detected or produced
+	 * @param start beginning of the text range (inclusive)
+	 * @param end   end of the text range (exclusive)
+	 */
+	void commit(CharSequence text, int start, int end) {
+		recording.end();
+		if(recording.shouldCommit()) {
+			inputLength = end - start;
+			tokenCount = Tokenizer.countTokens(text, start, end);
+			recording.commit(this);
+		}
+	}
+
+	private static Recordings loadRecordings() {
+		try {
+			Class.forName("jdk.jfr.Event", false, ParserEvent.class.getClassLoader());
+			return (Recordings) Class.forName("kem.tnp.common.FlightEvents")
+					.getDeclaredConstructor()
+					.newInstance();
+		} catch(ReflectiveOperationException | LinkageError e) {
+			// No jdk.jfr module (or the JFR events are not packaged with the library), so the events are never recorded.
+			return null;
+		}
+	}
+
+	/**
+	 * JFR event the values of a {@linkplain ParserEvent} are recorded with. The methods are implemented by <code>jdk.jfr.Event</code>.
+	 */
+	interface Recording {
+		boolean isEnabled();
+
+		void begin();
+
+		void end();
+
+		boolean shouldCommit();
+
+		/**
+		 * Copies the values of the given event and commits this one.
+		 *
+		 * @param event filled event
+		 */
+		void commit(ParserEvent event);
+	}
+
+	/**
+	 * Factory of JFR events.
+	 */
+	interface Recordings {
+		Recording textToNumber();
+
+		Recording numberToString();
+
+		Recording detectLanguages();
+	}
+}
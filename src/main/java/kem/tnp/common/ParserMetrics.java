@@ -0,0 +1,56 @@
+package kem.tnp.common;
+
+/**
+ * Metrics SPI: receives a notification on every library operation. Install an implementation with {@linkplain Metrics#install(ParserMetrics)}.
+ * {@linkplain DefaultParserMetrics} is the built-in implementation; an adapter to a metrics library (Micrometer, Dropwizard etc)
+ * can implement this interface as well.<p/>
+ * Implementations are called from the converting threads, so they must be thread-safe and fast.
+ * Created on 18-Oct-26 at 8:50 AM.
+ */
+public interface ParserMetrics {
+	/**
+	 * Library operation.
+	 */
+	enum Operation {
+		/**
+		 * Language detection, see {@linkplain LanguageDetector#detectLanguages(CharSequence)}.
+		 */
+		DETECT,
+		/**
+		 * Input normalization, see {@linkplain Tokenizer#normalize(CharSequence)}.
+		 */
+		NORMALIZE,
+		/**
+		 * Text to number conversion by a language parser.
+		 */
+		PARSE,
+		/**
+		 * Number to text conversion by a language parser.
+		 */
+		RENDER
+	}
+
+	/**
+	 * Language code that operations not bound to a language are reported with.
+	 */
+	String NO_LANGUAGE = "";
+
+	/**
+	 * Reports completed operation.
+	 *
+	 * @param operation    the operation
+	 * @param languageCode language of the operation, e.g. the detected language, or {@linkplain #NO_LANGUAGE}
+	 * @param nanos        duration of the operation in nanoseconds
+	 * @param success      whether the operation has succeeded
+	 */
+	void record(Operation operation, String languageCode, long nanos, boolean success);
+
+	/**
+	 * Reports token that a parser didn't recognize.
+	 *
+	 * @param input input text
+	 * @param start token start offset (inclusive)
+	 * @param end   token end offset (exclusive)
+	 */
+	void unrecognizedToken(CharSequence input, int start, int end);
+}
@@ -68,4 +68,35 @@ public enum ParsingState {
 		final Utils.StateWithNumber stateWithNumber = Utils.getState(event, f);
 		return isStateAllowed(stateWithNumber.state) ? stateWithNumber : Utils.ERROR;
 	}
+
+	/**
+	 * Transit to next state based on the given event, which is the [start, end) range of the input
+	 *
+	 * @param input input text
+	 * @param start event start offset (inclusive)
+	 * @param end   event end offset (exclusive)
+	 * @return next state. If the given event is not supported on the current state then {@linkplain Utils#ERROR} is returned
+	 */
+	public Utils.StateWithNumber nextState(CharSequence input, int start, int end, Supplier<Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>>> f) {
+		final Utils.StateWithNumber stateWithNumber = Utils.getState(input, start, end, f);
+		return isStateAllowed(stateWithNumber.state) ? stateWithNumber : Utils.ERROR;
+	}
+
+	/**
+	 * Transit to next state based on the given event, which is the [start, end) range of the input
+	 *
+	 * @param lexicon language-specific FSM lexicon
+	 * @param input   input text
+	 * @param start   event start offset (inclusive)
+	 * @param end     event end offset (exclusive)
+	 * @return next state. If the given event is not supported on the current state then {@linkplain Utils#ERROR} is returned
+	 */
+	public Utils.StateWithNumber nextState(Lexicon lexicon, CharSequence input, int start, int end) {
+		return nextState((Utils.TokenLookup) lexicon, input, start, end);
+	}
+
+	Utils.StateWithNumber nextState(Utils.TokenLookup lookup, CharSequence input, int start, int end) {
+		final Utils.StateWithNumber stateWithNumber = lookup.lookup(input, start, end);
+		return isStateAllowed(stateWithNumber.state) ? stateWithNumber : Utils.ERROR;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package kem.tnp.common;
+
+import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Text to number converter bound to a known language (or a short list of allowed languages), for inputs whose locale is known up front.
+ * No language detection is performed: the parsers are resolved once, when the instance is created, so converting an input with
+ * a single pinned language costs the same as calling its {@linkplain LangNumberParser} directly.<p/>
+ * If several languages are allowed, they are tried in the given order and the first one that converts the input wins.
+ * An instance is immutable and thread-safe.
+ * <pre>{@code
+ * PinnedNumberParser parser = StringNumberParser.pin(ParserConfig.EMPTY, "ru", "en");
+ * long n = parser.parseLong("пять тысяч", result);
+ * }</pre>
+ * Created on 18-Oct-26 at 3:40 AM.
+ *
+ * @see StringNumberParser#pin(ParserConfig, String...)
+ */
+public final class PinnedNumberParser {
+	private final String[] languageCodes;
+	private final LangNumberParser[] parsers;
+
+	PinnedNumberParser(String[] languageCodes, LangNumberParser[] parsers) {
+		this.languageCodes = languageCodes;
+		this.parsers = parsers;
+	}
+
+	/**
+	 * @return codes of the allowed languages in the order they are tried
+	 */
+	public List<String> getLanguageCodes() {
+		return Collections.unmodifiableList(Arrays.asList(languageCodes));
+	}
+
+	/**
+	 * Converts the given text input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246
+	 *
+	 * @param input number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @return numeric form of the given input, e.g. 14246
+	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value in any of the allowed languages
+	 */
+	public Long textToNumber(@NotNull String input) throws UnrecognizedTokenException {
+		if(parsers.length == 1) {
+			return parsers[0].stringToNumber(input);
+		}
+		final ParseResult result = new ParseResult();
+		final long res = parseLong(input, 0, input.length(), result);
+		if(!result.isSuccess()) {
+			throw new UnrecognizedTokenException(result.errorMessage(input));
+		}
+		return res;
+	}
+
+	/**
+	 * Converts the given text input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246 without boxing and
+	 * without throwing on invalid input.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param result reusable result holder that receives the conversion status, the offending token offsets and the language code
+	 * @return numeric form of the given input or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 * @see #parseLong(CharSequence, int, int, ParseResult)
+	 */
+	public long parseLong(@NotNull CharSequence input, @NotNull ParseResult result) {
+		return parseLong(input, 0, input.length(), result);
+	}
+
+	/**
+	 * Converts the given [start, end) range of the input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246
+	 * without boxing and without throwing on invalid input.
+	 * If none of the allowed languages converts the input, the result describes the failure in the first (preferred) language.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param start  range start offset (inclusive)
+	 * @param end    range end offset (exclusive)
+	 * @param result reusable result holder that receives the conversion status, the offending token offsets and the language code
+	 * @return numeric form of the given input range or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 */
+	public long parseLong(@NotNull CharSequence input, int start, int end, @NotNull ParseResult result) {
+		for(int i = 0; i < parsers.length; i++) {
+			final long res = parsers[i].parseLong(input, start, end, result);
+			if(result.isSuccess()) {
+				result.setLanguageCode(languageCodes[i]);
+				return res;
+			}
+		}
+		if(parsers.length > 1) {
+			parsers[0].parseLong(input, start, end, result);
+		}
+		result.setLanguageCode(languageCodes[0]);
+		return ParseResult.NO_VALUE;
+	}
+
+	@Override
+	public String toString() {
+		return "PinnedNumberParser" + Arrays.toString(languageCodes);
+	}
+}
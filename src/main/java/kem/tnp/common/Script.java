@@ -0,0 +1,89 @@
+package kem.tnp.common;
+
+/**
+ * Writing systems that language dictionaries are declared with, e.g. "en" is written in {@linkplain #LATIN}, "ru" in {@linkplain #CYRILLIC}.
+ * The character ranges are the ones of {@linkplain LanguageDetectorOLD.Language}, widened to the whole Unicode block,
+ * so accented Latin letters ("é", "ñ") and Ukrainian letters ("і", "ї", "є", "ґ") are covered.<p/>
+ * A set of scripts is represented by an <em>int</em> mask: script <em>s</em> corresponds to bit <em>1 &lt;&lt; s.ordinal()</em>.
+ * Created on 18-Oct-26 at 4:35 AM.
+ */
+public enum Script {
+	LATIN('\u0041', '\u024F'),    // Basic Latin .. Latin Extended-B
+	CYRILLIC('\u0400', '\u052F'), // Cyrillic, Cyrillic Supplement
+	HEBREW('\u05D0', '\u05EA');
+
+	private static final Script[] VALUES = values();
+
+	private final char from;
+	private final char to;
+
+	Script(char from, char to) {
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * @return mask of this script
+	 */
+	public int mask() {
+		return 1 << ordinal();
+	}
+
+	/**
+	 * Classifies the given character.
+	 *
+	 * @param c a character
+	 * @return script of the given letter or <em>null</em> if the character is not a letter of any known script, e.g. a digit or punctuation
+	 */
+	public static Script of(char c) {
+		if(c < 0x80) { // fast path for ASCII
+			return (c | 0x20) >= 'a' && (c | 0x20) <= 'z' ? LATIN : null;
+		}
+		if(!Character.isLetter(c)) {
+			return null;
+		}
+		for(Script script : VALUES) {
+			if(script.from <= c && c <= script.to) {
+				return script;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Collects scripts of the letters of the given [start, end) range of the input in a single pass.
+	 *
+	 * @param input input text
+	 * @param start range start offset (inclusive)
+	 * @param end   range end offset (exclusive)
+	 * @return mask of the scripts found
+	 */
+	public static int scan(CharSequence input, int start, int end) {
+		final int all = (1 << VALUES.length) - 1;
+		int res = 0;
+		for(int i = start; i < end && res != all; i++) {
+			final Script script = of(input.charAt(i));
+			if(script != null) {
+				res |= script.mask();
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Parses comma-separated script names, e.g. "LATIN, CYRILLIC".
+	 *
+	 * @param names script names (case-insensitive)
+	 * @return mask of the given scripts
+	 * @throws IllegalArgumentException if a name is unknown
+	 */
+	public static int parse(String names) {
+		int res = 0;
+		for(String name : names.split(",")) {
+			if(!name.trim().isEmpty()) {
+				res |= valueOf(name.trim().toUpperCase()).mask();
+			}
+		}
+		return res;
+	}
+}
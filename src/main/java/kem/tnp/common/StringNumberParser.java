@@ -3,18 +3,15 @@ package kem.tnp.common;
 
 import kem.tnp.common.langparsers.LangNumberParserEmpty;
 import kem.tnp.common.langparsers.LangNumberParserEn;
-import org.reflections.Reflections;
-import org.reflections.scanners.Scanners;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
-import java.util.Collections;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Created by Evgeny Kurtser on 06-Jan-22 at 8:30 PM.
@@ -24,7 +21,15 @@ public abstract class StringNumberParser {
 
 	public final static Logger log = LoggerFactory.getLogger(StringNumberParser.class);
 
-	private static Map<String, LangNumberParser> REFLECTIONS_CACHE = null;
+	// Pre-configured parser variants: base parser -> configuration -> parser variant.
+	private static final ConcurrentMap<LangNumberParser, ConcurrentMap<ParserConfig, LangNumberParser>> VARIANTS_CACHE = new ConcurrentHashMap<>();
+	// Optional cache of textToNumber results: (normalized input, configuration, default language) -> number.
+	private static volatile MemoCache<Tuple3<String, ParserConfig, String>, Long> TEXT_CACHE = null;
+
+	/**
+	 * Number of inputs the language of a column is inferred from, see {@linkplain #textToNumbers(List, long[], BitSet, ParserConfig, String...)}.
+	 */
+	public static final int BATCH_SAMPLE_SIZE = 32;
 
 	/**
 	 * Converts the given text input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246<p/>
@@ -42,7 +47,7 @@ public abstract class StringNumberParser {
 	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value
 	 */
 	public static Long textToNumber(String input, @Nullable String... defaultLanguageCode) throws LanguageException, UnrecognizedTokenException {
-		return textToNumber(input, Collections.emptyMap(), defaultLanguageCode);
+		return textToNumber(input, ParserConfig.EMPTY, defaultLanguageCode);
 	}
 
 	/**
@@ -63,6 +68,93 @@ public abstract class StringNumberParser {
 	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value
 	 */
 	public static Long textToNumber(String input, @NotNull Map<String, Object> params, @Nullable String... defaultLanguageCode) throws LanguageException, UnrecognizedTokenException {
+		return textToNumber(input, ParserConfig.of(params), defaultLanguageCode);
+	}
+
+	/**
+	 * Converts the given text input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246<p/>
+	 * Same as {@linkplain #textToNumber(String, Map, String...)}, but the parser variant for the given configuration is taken from
+	 * {@linkplain #getLangNumberParser(String, ParserConfig, String...)}, so no configuration work is done per call.
+	 * If the results cache is {@linkplain #enableCache(int) enabled}, repeated inputs are neither detected nor parsed again.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param config configuration parameters. Should not be <em>null</em>
+	 * @return numeric form of the given input, e.g. 14246
+	 * @throws LanguageException          if the input language couldn't be detected
+	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value
+	 */
+	public static Long textToNumber(String input, @NotNull ParserConfig config, @Nullable String... defaultLanguageCode) throws LanguageException, UnrecognizedTokenException {
+		final TextToNumberEvent event = new TextToNumberEvent();
+		if(!event.isEnabled()) {
+			return textToNumber(input, config, defaultLanguageCode, null);
+		}
+		event.begin();
+		try {
+			final Long res = textToNumber(input, config, defaultLanguageCode, event);
+			event.value = res;
+			event.outcome = ParserEvent.SUCCESS;
+			return res;
+		} catch(RuntimeException e) {
+			event.failed(e);
+			throw e;
+		} finally {
+			event.commit(input, 0, input.length());
+		}
+	}
+
+	// The event phases are measured only if the event is given.
+	private static Long textToNumber(String input, ParserConfig config, String[] defaultLanguageCode, @Nullable TextToNumberEvent event) throws LanguageException, UnrecognizedTokenException {
+		final MemoCache<Tuple3<String, ParserConfig, String>, Long> cache = TEXT_CACHE;
+		if(cache == null || input.length() > MemoCache.MAX_KEY_LENGTH) {
+			return convert(input, config, defaultLanguageCode, event);
+		}
+		final long started = event == null ? 0L : System.nanoTime();
+		final Tuple3<String, ParserConfig, String> key = Tuple3.of(Tokenizer.normalize(input), config,
+				defaultLanguageCode != null && defaultLanguageCode.length > 0 ? defaultLanguageCode[0] : null);
+		if(event != null) {
+			event.normalizeNanos = System.nanoTime() - started;
+		}
+		Long res = cache.get(key);
+		if(res == null) {
+			res = convert(input, config, defaultLanguageCode, event);
+			cache.put(key, res);
+		} else if(event != null) {
+			event.cached = true;
+		}
+		return res;
+	}
+
+	/**
+	 * Enables cache of {@linkplain #textToNumber(String, ParserConfig, String...)} results. The results are cached by normalized input
+	 * (see {@linkplain Tokenizer#normalize(CharSequence)}), configuration and default language.
+	 * So the cache assumes that parsers are case-insensitive, as the built-in ones are.
+	 * Only successful conversions of inputs not longer than {@value MemoCache#MAX_KEY_LENGTH} characters are cached.<p/>
+	 * The cache is disabled by default. Enabling it again replaces the cache with an empty one.
+	 *
+	 * @param maximumSize maximal number of cached results
+	 * @see MemoCache
+	 */
+	public static void enableCache(int maximumSize) {
+		TEXT_CACHE = new MemoCache<>(maximumSize);
+	}
+
+	/**
+	 * Disables cache of {@linkplain #textToNumber(String, ParserConfig, String...)} results.
+	 */
+	public static void disableCache() {
+		TEXT_CACHE = null;
+	}
+
+	/**
+	 * @return statistics of {@linkplain #textToNumber(String, ParserConfig, String...)} results cache or {@linkplain Optional#empty()}
+	 * if the cache is disabled
+	 */
+	public static Optional<MemoCache.Stats> getCacheStats() {
+		return Optional.ofNullable(TEXT_CACHE).map(MemoCache::stats);
+	}
+
+	private static Long convert(String input, ParserConfig config, String[] defaultLanguageCode, @Nullable TextToNumberEvent event) throws LanguageException, UnrecognizedTokenException {
+		final long started = event == null ? 0L : System.nanoTime();
 		final String languageCode = LanguageDetector
 				.getLanguageDetector()
 				.detectLanguage(input)
@@ -72,11 +164,302 @@ public abstract class StringNumberParser {
 					}
 					throw new LanguageException("Couldn't detect language");
 				});
-		return getLangNumberParser(languageCode, defaultLanguageCode)
-				.map(lnp -> lnp.with(params).stringToNumber(input))
+		final long detected = event == null ? 0L : System.nanoTime();
+		if(event != null) {
+			event.language = languageCode;
+			event.detectNanos = detected - started;
+		}
+		final LangNumberParser parser = getLangNumberParser(languageCode, config, defaultLanguageCode)
 				.orElseThrow(() -> new LanguageException("Couldn't find handler for language " + languageCode));
+		if(event != null) {
+			event.lookupNanos = System.nanoTime() - detected;
+		}
+		final ParserMetrics metrics = Metrics.current();
+		if(metrics == null && event == null) {
+			return parser.stringToNumber(input);
+		}
+		final long parsing = System.nanoTime();
+		boolean success = false;
+		try {
+			final Long res = parser.stringToNumber(input);
+			success = true;
+			return res;
+		} finally {
+			final long nanos = System.nanoTime() - parsing;
+			if(metrics != null) {
+				metrics.record(ParserMetrics.Operation.PARSE, languageCode, nanos, success);
+			}
+			if(event != null) {
+				event.parseNanos = nanos;
+			}
+		}
+	}
+
+
+	/**
+	 * Creates converter bound to the given languages. It skips language detection, see {@linkplain PinnedNumberParser}.
+	 *
+	 * @param languageCodes allowed language codes (e.g. "en", "ru") in the order they should be tried
+	 * @return converter bound to the given languages
+	 * @throws LanguageException if there is no parser for any of the given languages
+	 * @see #pin(ParserConfig, String...)
+	 */
+	public static PinnedNumberParser pin(@NotNull String... languageCodes) throws LanguageException {
+		return pin(ParserConfig.EMPTY, languageCodes);
+	}
+
+	/**
+	 * Creates converter bound to the given languages and configuration. It skips language detection, see {@linkplain PinnedNumberParser}.
+	 * The parser variants are resolved once, so the returned instance should be kept and reused.
+	 *
+	 * @param config        configuration parameters. Should not be <em>null</em>
+	 * @param languageCodes allowed language codes (e.g. "en", "ru") in the order they should be tried
+	 * @return converter bound to the given languages
+	 * @throws LanguageException if there is no parser for any of the given languages
+	 */
+	public static PinnedNumberParser pin(@NotNull ParserConfig config, @NotNull String... languageCodes) throws LanguageException {
+		if(languageCodes.length == 0) {
+			throw new IllegalArgumentException("At least one language code is expected");
+		}
+		final LangNumberParser[] parsers = new LangNumberParser[languageCodes.length];
+		for(int i = 0; i < languageCodes.length; i++) {
+			final String languageCode = languageCodes[i];
+			parsers[i] = getLangNumberParser(languageCode, config)
+					.orElseThrow(() -> new LanguageException("Couldn't find handler for language " + languageCode));
+		}
+		return new PinnedNumberParser(languageCodes.clone(), parsers);
+	}
+
+	/**
+	 * Creates converter that detects the input language and parses the input in a single pass, see {@linkplain FusedNumberParser}.
+	 * All registered parsers that provide a {@linkplain LangNumberParser#lexicon() lexicon} are the candidates.
+	 *
+	 * @return converter that tries all registered languages at once
+	 * @see #fuse(ParserConfig, String...)
+	 */
+	public static FusedNumberParser fuse() {
+		try {
+			return fuse(ParserConfig.EMPTY, lexiconLanguages());
+		} catch(LanguageException e) {
+			throw new IllegalStateException(e); // cannot happen: the codes are taken from the registry
+		}
+	}
+
+	// Codes of the registered languages whose parsers provide a lexicon, in alphabetical order.
+	private static String[] lexiconLanguages() {
+		final List<String> res = new ArrayList<>();
+		for(Map.Entry<String, LangNumberParser> entry : new TreeMap<>(parsers()).entrySet()) {
+			if(entry.getValue().lexicon() != null) {
+				res.add(entry.getKey());
+			}
+		}
+		return res.toArray(new String[0]);
+	}
+
+	/**
+	 * Creates converter that detects the input language among the given ones and parses the input in a single pass,
+	 * see {@linkplain FusedNumberParser}. The parser variants are resolved once, so the returned instance should be kept and reused.
+	 *
+	 * @param config        configuration parameters. Should not be <em>null</em>
+	 * @param languageCodes candidate language codes (e.g. "en", "ru"). The first ones win ties until the hit rates are known
+	 * @return converter that tries the given languages at once
+	 * @throws LanguageException if there is no parser for any of the given languages
+	 */
+	public static FusedNumberParser fuse(@NotNull ParserConfig config, @NotNull String... languageCodes) throws LanguageException {
+		if(languageCodes.length == 0) {
+			throw new IllegalArgumentException("At least one language code is expected");
+		}
+		final LangNumberParser[] parsers = new LangNumberParser[languageCodes.length];
+		for(int i = 0; i < languageCodes.length; i++) {
+			final String languageCode = languageCodes[i];
+			parsers[i] = getLangNumberParser(languageCode, config)
+					.orElseThrow(() -> new LanguageException("Couldn't find handler for language " + languageCode));
+		}
+		return new FusedNumberParser(languageCodes.clone(), parsers);
 	}
 
+	/**
+	 * Creates extractor of number phrases from a free text, see {@linkplain NumberExtractor}.
+	 * All registered parsers that provide a {@linkplain LangNumberParser#lexicon() lexicon} are the candidates.
+	 *
+	 * @return extractor that finds number phrases in all registered languages
+	 * @see #extractor(ParserConfig, String...)
+	 */
+	public static NumberExtractor extractor() {
+		try {
+			return extractor(ParserConfig.EMPTY, lexiconLanguages());
+		} catch(LanguageException e) {
+			throw new IllegalStateException(e); // cannot happen: the codes are taken from the registry
+		}
+	}
+
+	/**
+	 * Creates extractor of number phrases in the given languages from a free text, see {@linkplain NumberExtractor}.
+	 *
+	 * @param config        configuration parameters. Should not be <em>null</em>
+	 * @param languageCodes candidate language codes (e.g. "en", "ru") in the order they win ties
+	 * @return extractor that finds number phrases in the given languages
+	 * @throws LanguageException if there is no parser for any of the given languages
+	 * @throws IllegalArgumentException if the parser of any of the given languages has no lexicon
+	 */
+	public static NumberExtractor extractor(@NotNull ParserConfig config, @NotNull String... languageCodes) throws LanguageException {
+		if(languageCodes.length == 0) {
+			throw new IllegalArgumentException("At least one language code is expected");
+		}
+		if(languageCodes.length > Long.SIZE) {
+			throw new IllegalArgumentException("Too many languages: " + languageCodes.length + ", at most " + Long.SIZE + " are supported");
+		}
+		final Lexicon[] lexicons = new Lexicon[languageCodes.length];
+		for(int i = 0; i < languageCodes.length; i++) {
+			final String languageCode = languageCodes[i];
+			lexicons[i] = getLangNumberParser(languageCode, config)
+					.orElseThrow(() -> new LanguageException("Couldn't find handler for language " + languageCode))
+					.lexicon();
+			if(lexicons[i] == null) {
+				throw new IllegalArgumentException("Parser of language " + languageCode + " has no lexicon");
+			}
+		}
+		return new NumberExtractor(languageCodes.clone(), lexicons, NumberExtractor.DEFAULT_BUFFER_SIZE, ForkJoinPool.commonPool(),
+				NumberExtractor.DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * Creates converter that is fed one token at a time, see {@linkplain IncrementalNumberParser}.
+	 *
+	 * @param languageCode language code (e.g. "en", "ru")
+	 * @return new incremental converter
+	 * @throws LanguageException if there is no parser for the given language
+	 * @throws IllegalArgumentException if the parser of the given language has no lexicon
+	 * @see #incremental(ParserConfig, String)
+	 */
+	public static IncrementalNumberParser incremental(@NotNull String languageCode) throws LanguageException {
+		return incremental(ParserConfig.EMPTY, languageCode);
+	}
+
+	/**
+	 * Creates converter that is fed one token at a time, see {@linkplain IncrementalNumberParser}.
+	 * The returned instance is not thread-safe: every token stream should have its own one.
+	 *
+	 * @param config       configuration parameters. Should not be <em>null</em>
+	 * @param languageCode language code (e.g. "en", "ru")
+	 * @return new incremental converter
+	 * @throws LanguageException if there is no parser for the given language
+	 * @throws IllegalArgumentException if the parser of the given language has no lexicon
+	 */
+	public static IncrementalNumberParser incremental(@NotNull ParserConfig config, @NotNull String languageCode) throws LanguageException {
+		final Lexicon lexicon = getLangNumberParser(languageCode, config)
+				.orElseThrow(() -> new LanguageException("Couldn't find handler for language " + languageCode))
+				.lexicon();
+		if(lexicon == null) {
+			throw new IllegalArgumentException("Parser of language " + languageCode + " has no lexicon");
+		}
+		return new IncrementalNumberParser(languageCode, lexicon);
+	}
+
+	/**
+	 * Creates bulk converter that converts arrays and lists of inputs in parallel on the {@linkplain ForkJoinPool#commonPool() common pool},
+	 * see {@linkplain ParallelNumberParser}.
+	 *
+	 * @return bulk converter with the default configuration and {@linkplain ParallelNumberParser#DEFAULT_MIN_CHUNK_SIZE minimal chunk size}
+	 */
+	public static ParallelNumberParser parallel() {
+		return new ParallelNumberParser(ForkJoinPool.commonPool(), ParserConfig.EMPTY, ParallelNumberParser.DEFAULT_MIN_CHUNK_SIZE);
+	}
+
+	/**
+	 * Converts the given text input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246 without boxing and
+	 * without throwing on invalid input or unknown language.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param result reusable result holder that receives the conversion status, the offending token offsets and the language code
+	 * @return numeric form of the given input or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 * @see #parseLong(CharSequence, ParserConfig, ParseResult, String...)
+	 */
+	public static long parseLong(CharSequence input, @NotNull ParseResult result, @Nullable String... defaultLanguageCode) {
+		return parseLong(input, ParserConfig.EMPTY, result, defaultLanguageCode);
+	}
+
+	/**
+	 * Converts the given text input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246 without boxing and
+	 * without throwing on invalid input or unknown language.
+	 * The language is detected the same way {@linkplain #textToNumber(String, ParserConfig, String...)} does,
+	 * then {@linkplain LangNumberParser#parseLong(CharSequence, ParseResult)} method is called.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param config configuration parameters. Should not be <em>null</em>
+	 * @param result reusable result holder that receives the conversion status, the offending token offsets and the language code
+	 * @return numeric form of the given input or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 */
+	public static long parseLong(CharSequence input, @NotNull ParserConfig config, @NotNull ParseResult result, @Nullable String... defaultLanguageCode) {
+		result.reset();
+		final String languageCode = LanguageDetector
+				.getLanguageDetector()
+				.detectLanguage(input)
+				.orElseGet(() -> defaultLanguageCode != null && defaultLanguageCode.length > 0 ? defaultLanguageCode[0] : null);
+		if(languageCode == null) {
+			return result.failure(ParseResult.Status.UNSUPPORTED_LANGUAGE, -1, -1);
+		}
+		final Optional<LangNumberParser> langNumberParser = getLangNumberParser(languageCode, config, defaultLanguageCode);
+		if(!langNumberParser.isPresent()) {
+			result.setLanguageCode(languageCode);
+			return result.failure(ParseResult.Status.UNSUPPORTED_LANGUAGE, -1, -1);
+		}
+		final ParserMetrics metrics = Metrics.current();
+		final long started = metrics == null ? 0L : System.nanoTime();
+		final long res = langNumberParser.get().parseLong(input, result);
+		result.setLanguageCode(parsers().containsKey(languageCode) ? languageCode : defaultLanguageCode[0]);
+		if(metrics != null) {
+			metrics.record(ParserMetrics.Operation.PARSE, result.getLanguageCode(), System.nanoTime() - started, result.isSuccess());
+		}
+		return res;
+	}
+
+	/**
+	 * Converts column of text inputs, e.g. a CSV or a DB column, to their numeric forms.
+	 * Same as {@linkplain #textToNumbers(List, long[], BitSet, ParserConfig, String...)}.
+	 *
+	 * @param inputs   numbers in text form
+	 * @param out      receives numeric form of <em>inputs[i]</em> at index <em>i</em>, or {@linkplain ParseResult#NO_VALUE} if it cannot be converted
+	 * @param failures receives set bit <em>i</em> if <em>inputs[i]</em> cannot be converted, clear bit otherwise. Bits beyond the inputs are left as is
+	 * @param config   configuration parameters. Should not be <em>null</em>
+	 * @return number of inputs that couldn't be converted
+	 */
+	public static int textToNumbers(@NotNull CharSequence[] inputs, @NotNull long[] out, @NotNull BitSet failures, @NotNull ParserConfig config, @Nullable String... defaultLanguageCode) {
+		return textToNumbers(Arrays.asList(inputs), out, failures, config, defaultLanguageCode);
+	}
+
+	/**
+	 * Converts column of text inputs, e.g. a CSV or a DB column, to their numeric forms.
+	 * Values of a column are usually written in the same language, so the language is detected once: up to {@value #BATCH_SAMPLE_SIZE}
+	 * inputs spread over the column vote for it (see {@linkplain FusedNumberParser}). Then every input is parsed by that language parser, and only the inputs it fails
+	 * to convert are converted one by one the way {@linkplain #parseLong(CharSequence, ParserConfig, ParseResult, String...)} does,
+	 * i.e. with their own language detection.<p/>
+	 * The results are written into the given arrays, so neither a number is boxed nor an exception is thrown per input.
+	 * <pre>{@code
+	 * long[] values = new long[column.size()];
+	 * BitSet failures = new BitSet();
+	 * int failed = StringNumberParser.textToNumbers(column, values, failures, ParserConfig.EMPTY, "en");
+	 * for(int i = failures.nextSetBit(0); i >= 0; i = failures.nextSetBit(i + 1)) {
+	 *     // column.get(i) is not a number
+	 * }
+	 * }</pre>
+	 *
+	 * @param inputs   numbers in text form. <em>null</em> elements are reported as failures
+	 * @param out      receives numeric form of <em>inputs[i]</em> at index <em>i</em>, or {@linkplain ParseResult#NO_VALUE} if it cannot be converted.
+	 *                 Should be at least as long as the inputs list
+	 * @param failures receives set bit <em>i</em> if <em>inputs[i]</em> cannot be converted, clear bit otherwise. Bits beyond the inputs are left as is
+	 * @param config   configuration parameters. Should not be <em>null</em>
+	 * @return number of inputs that couldn't be converted
+	 */
+	public static int textToNumbers(@NotNull List<? extends CharSequence> inputs, @NotNull long[] out, @NotNull BitSet failures, @NotNull ParserConfig config, @Nullable String... defaultLanguageCode) {
+		final int size = inputs.size();
+		ColumnConverter.checkOutput(size, out.length);
+		final long[] failureWords = new long[ColumnConverter.words(size)];
+		final int res = ColumnConverter.of(inputs, config, defaultLanguageCode).convert(inputs, 0, size, out, failureWords, new ParseResult());
+		failures.clear(0, size);
+		failures.or(BitSet.valueOf(failureWords));
+		return res;
+	}
 
 	/**
 	 * Converts the given input e.g. 14246 to its text form -- "fourteen thousand two hundred and forty-six".
@@ -87,7 +470,7 @@ public abstract class StringNumberParser {
 	 * @return text form of the given input
 	 */
 	public static String numberToString(@NotNull Long input, @NotNull String languageCode) throws LanguageException, UnrecognizedTokenException {
-		return numberToString(input, languageCode, Collections.emptyMap());
+		return numberToString(input, languageCode, ParserConfig.EMPTY);
 	}
 
 	/**
@@ -103,9 +486,127 @@ public abstract class StringNumberParser {
 	 * @see LangNumberParserEn#with(String, Object)
 	 */
 	public static String numberToString(@NotNull Long input, @NotNull String languageCode, @NotNull Map<String, Object> params) throws LanguageException, UnrecognizedTokenException {
-		return getLangNumberParser(languageCode)
-				.map(lnp -> lnp.with(params).numberToString(input))
-				.orElseThrow(() -> new LanguageException("Couldn't find handler for language " + languageCode));
+		return numberToString(input, languageCode, ParserConfig.of(params));
+	}
+
+	/**
+	 * Converts the given input e.g. 14246 to its text form -- "fourteen thousand two hundred and forty-six".
+	 * Same as {@linkplain #numberToString(Long, String, Map)}, but the parser variant for the given configuration is taken from
+	 * {@linkplain #getLangNumberParser(String, ParserConfig, String...)}, so no configuration work is done per call.
+	 *
+	 * @param input        a number
+	 * @param languageCode language code (e.g. "en", "fr", "it", "ru" etc)
+	 * @param config       configuration parameters. Should not be <em>null</em>
+	 * @return text form of the given input
+	 * @see LangNumberParserEn#configure(ParserConfig)
+	 */
+	public static String numberToString(@NotNull Long input, @NotNull String languageCode, @NotNull ParserConfig config) throws LanguageException, UnrecognizedTokenException {
+		final NumberToStringEvent event = new NumberToStringEvent();
+		if(!event.isEnabled()) {
+			return numberToString(input, languageCode, renderingParser(languageCode, config));
+		}
+		event.begin();
+		event.language = languageCode;
+		event.value = input;
+		final long started = System.nanoTime();
+		long found = 0L;
+		String res = "";
+		try {
+			final LangNumberParser parser = renderingParser(languageCode, config);
+			found = System.nanoTime();
+			event.lookupNanos = found - started;
+			res = numberToString(input, languageCode, parser);
+			event.outcome = ParserEvent.SUCCESS;
+			return res;
+		} catch(RuntimeException e) {
+			event.failed(e);
+			throw e;
+		} finally {
+			if(found != 0L) {
+				event.renderNanos = System.nanoTime() - found;
+			}
+			event.commit(res, 0, res.length());
+		}
+	}
+
+	/**
+	 * Appends text form of the given input e.g. 14246 -- "fourteen thousand two hundred and forty-six" to the given builder.
+	 * Unlike {@linkplain #numberToString(Long, String, ParserConfig)}, neither the input is boxed nor the result string is created.
+	 *
+	 * @param input        a number
+	 * @param languageCode language code (e.g. "en", "fr", "it", "ru" etc)
+	 * @param config       configuration parameters. Should not be <em>null</em>
+	 * @param out          builder to append to
+	 * @return the given builder
+	 * @see LangNumberParser#render(long, StringBuilder)
+	 */
+	public static StringBuilder render(long input, @NotNull String languageCode, @NotNull ParserConfig config, @NotNull StringBuilder out) throws LanguageException {
+		final NumberToStringEvent event = new NumberToStringEvent();
+		if(!event.isEnabled()) {
+			return render(input, languageCode, renderingParser(languageCode, config), out);
+		}
+		event.begin();
+		event.language = languageCode;
+		event.value = input;
+		final int length = out.length();
+		final long started = System.nanoTime();
+		long found = 0L;
+		try {
+			final LangNumberParser parser = renderingParser(languageCode, config);
+			found = System.nanoTime();
+			event.lookupNanos = found - started;
+			render(input, languageCode, parser, out);
+			event.outcome = ParserEvent.SUCCESS;
+			return out;
+		} catch(RuntimeException e) {
+			event.failed(e);
+			throw e;
+		} finally {
+			if(found != 0L) {
+				event.renderNanos = System.nanoTime() - found;
+			}
+			event.commit(out, length, out.length());
+		}
+	}
+
+	private static LangNumberParser renderingParser(String languageCode, ParserConfig config) throws LanguageException {
+		final Optional<LangNumberParser> langNumberParser = getLangNumberParser(languageCode, config);
+		if(!langNumberParser.isPresent()) {
+			throw new LanguageException("Couldn't find handler for language " + languageCode);
+		}
+		return langNumberParser.get();
+	}
+
+	private static String numberToString(Long input, String languageCode, LangNumberParser parser) throws UnrecognizedTokenException {
+		final ParserMetrics metrics = Metrics.current();
+		if(metrics == null) {
+			return parser.numberToString(input);
+		}
+		final long started = System.nanoTime();
+		boolean success = false;
+		try {
+			final String res = parser.numberToString(input);
+			success = true;
+			return res;
+		} finally {
+			metrics.record(ParserMetrics.Operation.RENDER, languageCode, System.nanoTime() - started, success);
+		}
+	}
+
+	private static StringBuilder render(long input, String languageCode, LangNumberParser parser, StringBuilder out) {
+		final ParserMetrics metrics = Metrics.current();
+		if(metrics == null) {
+			return parser.render(input, out);
+		}
+		final long started = System.nanoTime();
+		boolean success = false;
+		try {
+			parser.render(input, out);
+			success = true;
+			return out;
+		} finally {
+			metrics.record(ParserMetrics.Operation.RENDER, languageCode, System.nanoTime() - started, success);
+		}
 	}
 
 
@@ -116,32 +617,194 @@ public abstract class StringNumberParser {
 	 * @return LangNumberParser for the given language code. If no LangNumberParser found then {@linkplain LangNumberParserEmpty#getInstance()} is returned.
 	 */
 	public static Optional<LangNumberParser> getLangNumberParser(@NotNull String languageCode, @Nullable String... defaultLanguageCode) {
-		if(REFLECTIONS_CACHE == null) {
-			REFLECTIONS_CACHE = loadClassCache();
-		}
-		final LangNumberParser langNumberParser = REFLECTIONS_CACHE.get(languageCode);
+		final Map<String, LangNumberParser> parsers = parsers();
+		final LangNumberParser langNumberParser = parsers.get(languageCode);
 		if(langNumberParser == null && defaultLanguageCode != null && defaultLanguageCode.length > 0) {
-			return Optional.ofNullable(REFLECTIONS_CACHE.get(defaultLanguageCode[0]));
+			return Optional.ofNullable(parsers.get(defaultLanguageCode[0]));
 		}
 		return Optional.ofNullable(langNumberParser);
 	}
 
+	/**
+	 * Retrieves LangNumberParser variant for the given language code and configuration.
+	 * The variant is created by {@linkplain LangNumberParser#configure(ParserConfig)} once per distinct configuration and then reused,
+	 * so concurrent calls with different configurations don't share mutable state.
+	 *
+	 * @param languageCode language code (e.g. "en", "fr", "it", "ru" etc)
+	 * @param config       configuration parameters. Should not be <em>null</em>
+	 * @return LangNumberParser variant for the given language code and configuration
+	 */
+	public static Optional<LangNumberParser> getLangNumberParser(@NotNull String languageCode, @NotNull ParserConfig config, @Nullable String... defaultLanguageCode) {
+		final Optional<LangNumberParser> langNumberParser = getLangNumberParser(languageCode, defaultLanguageCode);
+		if(config.isEmpty()) {
+			return langNumberParser;
+		}
+		return langNumberParser.map(lnp -> VARIANTS_CACHE
+				.computeIfAbsent(lnp, k -> new ConcurrentHashMap<>())
+				.computeIfAbsent(config, lnp::configure));
+	}
+
+	/**
+	 * Initializes the library eagerly: loads the parsers registry, builds the parsers lexicons and number rendering tables
+	 * and loads the language detector dictionaries. Call it before the service takes traffic, so the first requests don't pay
+	 * for the initialization. Every resource is initialized exactly once, even if the first calls are concurrent.
+	 *
+	 * @return durations of the initialization stages
+	 * @see #warmUp(int)
+	 */
+	public static WarmUpReport warmUp() {
+		return warmUp(0);
+	}
+
+	/**
+	 * Initializes the library eagerly (see {@linkplain #warmUp()}) and then runs a warm-up corpus through the hot paths
+	 * (language detection, parsing, fused parsing and rendering), so they are JIT-compiled before the service takes traffic.
+	 * The corpus is made of numbers rendered by every registered parser that provides a {@linkplain LangNumberParser#lexicon() lexicon}.
+	 * Results cache (see {@linkplain #enableCache(int)}) is bypassed, so it is not filled with the corpus, and the corpus operations
+	 * are not recorded by the {@linkplain Metrics#install(ParserMetrics) installed metrics}, so they don't count as traffic.
+	 *
+	 * @param rounds number of times the corpus is run, 0 to skip the JIT warm-up. Several thousands rounds are usually enough
+	 * @return durations of the warm-up stages
+	 * @throws IllegalArgumentException if the number of rounds is negative
+	 */
+	public static WarmUpReport warmUp(int rounds) {
+		if(rounds < 0) {
+			throw new IllegalArgumentException("Number of rounds should not be negative");
+		}
+		final WarmUpReport report = new WarmUpReport();
+		long started = System.nanoTime();
+		final Map<String, LangNumberParser> parsers = parsers();
+		started = report.stageDone(WarmUpReport.Stage.REGISTRY, started);
+		for(LangNumberParser parser : parsers.values()) {
+			parser.lexicon();
+			try {
+				parser.numberToString(1L);
+			} catch(RuntimeException e) {
+				log.debug(parser.getClass().getName() + " doesn't render numbers", e);
+			}
+		}
+		started = report.stageDone(WarmUpReport.Stage.LEXICONS, started);
+		LanguageDetector.preload();
+		started = report.stageDone(WarmUpReport.Stage.DICTIONARIES, started);
+		if(rounds > 0) {
+			Metrics.suppressed(() -> runWarmUpCorpus(parsers, rounds));
+			report.stageDone(WarmUpReport.Stage.JIT, started);
+		}
+		log.debug("Warm-up completed: " + report);
+		return report;
+	}
+
+	// Numbers of all the magnitudes that the built-in parsers render.
+	private static final long[] WARM_UP_NUMBERS = {1L, 7L, 15L, 42L, 100L, 305L, 1_000L, 2_024L, 65_536L, 1_000_001L, 123_456_789L,
+			9_876_543_210L, 100_200_300_400_500L};
+
+	private static void runWarmUpCorpus(Map<String, LangNumberParser> parsers, int rounds) {
+		final List<String> texts = new ArrayList<>();
+		final List<String> languageCodes = new ArrayList<>();
+		for(Map.Entry<String, LangNumberParser> entry : parsers.entrySet()) {
+			if(entry.getValue().lexicon() == null) {
+				continue;
+			}
+			for(long number : WARM_UP_NUMBERS) {
+				texts.add(entry.getValue().numberToString(number));
+				languageCodes.add(entry.getKey());
+			}
+		}
+		final FusedNumberParser fused = fuse();
+		final ParseResult result = new ParseResult();
+		for(int round = 0; round < rounds; round++) {
+			for(int i = 0; i < texts.size(); i++) {
+				final String text = texts.get(i);
+				final LangNumberParser parser = parsers.get(languageCodes.get(i));
+				try {
+					convert(text, ParserConfig.EMPTY, new String[]{languageCodes.get(i)}, null);
+				} catch(RuntimeException e) {
+					log.debug("Warm-up corpus text \"" + text + "\" is not converted", e);
+				}
+				parser.parseLong(text, result);
+				fused.parseLong(text, result);
+				parser.numberToString(WARM_UP_NUMBERS[i % WARM_UP_NUMBERS.length]);
+			}
+		}
+	}
+
+	/**
+	 * Drops the pre-configured parser variants and the {@linkplain #enableCache(int) results cache} content.
+	 * They are re-created on demand. Statistics of the results cache are kept.
+	 */
+	public static void flushCaches() {
+		VARIANTS_CACHE.clear();
+		final MemoCache<?, ?> cache = TEXT_CACHE;
+		if(cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @return registered parsers: language code -> parser. The registry is loaded once, on first use
+	 */
+	static Map<String, LangNumberParser> parsers() {
+		return Registry.PARSERS;
+	}
+
+	/**
+	 * @param parser registered parser
+	 * @return configurations that variants of the given parser are currently created for
+	 */
+	static Set<ParserConfig> configVariants(LangNumberParser parser) {
+		final Map<ParserConfig, LangNumberParser> variants = VARIANTS_CACHE.get(parser);
+		return variants == null ? Collections.emptySet() : new HashSet<>(variants.keySet());
+	}
+
+	// Lazy holder: the JVM initializes the class exactly once, so concurrent first calls neither load the registry twice
+	// nor see it half-built.
+	private static final class Registry {
+		private static final Map<String, LangNumberParser> PARSERS = Collections.unmodifiableMap(loadClassCache());
+	}
+
+	/**
+	 * Loads all {@linkplain LangNumberParser} implementations registered in <code>META-INF/services/kem.tnp.common.LangNumberParser</code> files.
+	 * The registry files are generated at compile time by <code>kem.tnp.processor.LanguageHandlerProcessor</code> for every class
+	 * marked with {@linkplain LanguageHandler} annotation, so no classpath scanning is performed.
+	 * Third-party parsers are picked up the same way: either by running the annotation processor or by listing them in their own registry file.
+	 *
+	 * @return map of language code to its parser
+	 */
 	private static Map<String, LangNumberParser> loadClassCache() {
-		Reflections reflections = new Reflections(Scanners.SubTypes, Scanners.TypesAnnotated);
-		final Set<Class<? extends LangNumberParser>> subTypesOf = reflections.getSubTypesOf(LangNumberParser.class);
-		final Set<Class<?>> typesAnnotatedWith = reflections.getTypesAnnotatedWith(LanguageHandler.class);
-		typesAnnotatedWith.retainAll(subTypesOf);
-		return typesAnnotatedWith
-				.stream()
-				.collect(Collectors.toMap(
-						cc -> cc.getAnnotation(LanguageHandler.class).languageCode(),
-						cc -> {
-							try {
-								return (LangNumberParser) cc.newInstance();
-							} catch(InstantiationException | IllegalAccessException e) {
-								log.warn("Could not create new instance of " + cc.getName(), e);
-								return LangNumberParserEmpty.getInstance();
-							}
-						}));
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		if(classLoader == null) {
+			classLoader = StringNumberParser.class.getClassLoader();
+		}
+		final Map<String, LangNumberParser> res = new HashMap<>();
+		final Iterator<LangNumberParser> parsers = ServiceLoader.load(LangNumberParser.class, classLoader).iterator();
+		final Set<String> errors = new HashSet<>();
+		while(true) {
+			final LangNumberParser parser;
+			try {
+				if(!parsers.hasNext()) {
+					break;
+				}
+				parser = parsers.next();
+			} catch(ServiceConfigurationError e) {
+				if(!errors.add(String.valueOf(e.getMessage()))) {
+					// The iterator doesn't always get past a failure, e.g. if the registry files cannot be listed it fails the same way forever.
+					log.warn("Parsers loading is stopped after a repeated error", e);
+					break;
+				}
+				log.warn("Could not create new instance of a registered parser", e);
+				continue;
+			}
+			final LanguageHandler languageHandler = parser.getClass().getAnnotation(LanguageHandler.class);
+			if(languageHandler == null) {
+				log.warn(parser.getClass().getName() + " is not marked with @" + LanguageHandler.class.getSimpleName() + " annotation and will be ignored");
+				continue;
+			}
+			final LangNumberParser existing = res.putIfAbsent(languageHandler.languageCode(), parser);
+			if(existing != null) {
+				log.warn("Both " + existing.getClass().getName() + " and " + parser.getClass().getName() + " handle language " +
+						languageHandler.languageCode() + ". The latter will be ignored");
+			}
+		}
+		return res;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package kem.tnp.common;
+
+import java.util.Map;
+
+/**
+ * Management interface of the library, see {@linkplain TextNumberParserManagement}.
+ * Attributes are read-only snapshots; maps are shown as tables by JMX consoles.
+ * Created on 18-Oct-26 at 9:40 AM.
+ */
+public interface TextNumberParserMXBean {
+
+	// Parsers registry
+
+	/**
+	 * @return language code -> class name of the registered parser
+	 */
+	Map<String, String> getParserClasses();
+
+	/**
+	 * @return language code -> configurations that parser variants are currently created for
+	 */
+	Map<String, String[]> getConfigVariants();
+
+	// Language detector
+
+	/**
+	 * @return language code -> number of words in the language dictionary
+	 */
+	Map<String, Integer> getDictionarySizes();
+
+	/**
+	 * @return URL of the resource the dictionaries were loaded from
+	 */
+	String getDictionarySource();
+
+	/**
+	 * @return time the dictionaries were loaded at, in milliseconds since the epoch, 0 if they are not loaded yet
+	 */
+	long getDictionaryLoadedAt();
+
+	/**
+	 * @return duration of the dictionaries loading in milliseconds
+	 */
+	double getDictionaryLoadMillis();
+
+	/**
+	 * Loads the languages dictionaries again.
+	 *
+	 * @see LanguageDetector#reloadDictionaries()
+	 */
+	void reloadDictionaries();
+
+	// Caches
+
+	/**
+	 * @return statistics of the textToNumber results cache, empty if the cache is disabled
+	 * @see StringNumberParser#enableCache(int)
+	 */
+	Map<String, Long> getResultsCacheStats();
+
+	/**
+	 * Drops the pre-configured parser variants and the results cache content.
+	 *
+	 * @see StringNumberParser#flushCaches()
+	 */
+	void flushCaches();
+
+	// Metrics
+
+	/**
+	 * @return <em>true</em> if any {@linkplain ParserMetrics} are installed. Only {@linkplain DefaultParserMetrics} are reported by this bean
+	 */
+	boolean isMetricsEnabled();
+
+	/**
+	 * Installs new {@linkplain DefaultParserMetrics} if no metrics are installed, or disables metrics.
+	 *
+	 * @param enabled whether metrics should be collected
+	 */
+	void setMetricsEnabled(boolean enabled);
+
+	/**
+	 * @return "OPERATION/language" -> number of calls, e.g. "PARSE/en" -> 1024
+	 */
+	Map<String, Long> getCallCounts();
+
+	/**
+	 * @return "OPERATION/language" -> number of failed calls
+	 */
+	Map<String, Long> getFailureCounts();
+
+	/**
+	 * @return "OPERATION/language" -> average number of calls per second since the metrics were enabled or reset
+	 */
+	Map<String, Double> getThroughput();
+
+	/**
+	 * @return "OPERATION/language" -> 99th percentile of the latency in nanoseconds (up to 2x over-estimation)
+	 */
+	Map<String, Long> getLatencyP99Nanos();
+
+	/**
+	 * @return the most frequent unrecognized tokens with their counts, e.g. "zaza=12"
+	 */
+	String[] getTopUnrecognizedTokens();
+
+	/**
+	 * Resets the metrics counters.
+	 */
+	void resetMetrics();
+}
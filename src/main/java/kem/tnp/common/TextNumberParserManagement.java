@@ -0,0 +1,199 @@
+package kem.tnp.common;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * JMX view of the library: parsers registry, language detector dictionaries, caches and metrics counters.
+ * It is not registered by default. Register it once on application startup:
+ * <pre>{@code
+ * TextNumberParserManagement.register(); // kem.tnp:type=TextNumberParser
+ * }</pre>
+ * Metrics counters are shown if {@linkplain DefaultParserMetrics} are {@linkplain Metrics#install(ParserMetrics) installed},
+ * or enabled through the <code>MetricsEnabled</code> attribute.
+ * Created on 18-Oct-26 at 9:50 AM.
+ */
+public final class TextNumberParserManagement implements TextNumberParserMXBean {
+	/**
+	 * Name the MBean is registered with.
+	 */
+	public static final String OBJECT_NAME = "kem.tnp:type=TextNumberParser";
+
+	private static final int TOP_TOKENS = 20;
+
+	private TextNumberParserManagement() {
+	}
+
+	/**
+	 * Registers the MBean in the platform MBean server unless it is registered already.
+	 *
+	 * @throws IllegalStateException if the MBean cannot be registered
+	 */
+	public static synchronized void register() {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			final ObjectName name = new ObjectName(OBJECT_NAME);
+			if(!server.isRegistered(name)) {
+				server.registerMBean(new TextNumberParserManagement(), name);
+			}
+		} catch(JMException e) {
+			throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+		}
+	}
+
+	/**
+	 * Unregisters the MBean from the platform MBean server if it is registered.
+	 *
+	 * @throws IllegalStateException if the MBean cannot be unregistered
+	 */
+	public static synchronized void unregister() {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			final ObjectName name = new ObjectName(OBJECT_NAME);
+			if(server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch(JMException e) {
+			throw new IllegalStateException("Could not unregister " + OBJECT_NAME, e);
+		}
+	}
+
+	@Override
+	public Map<String, String> getParserClasses() {
+		final Map<String, String> res = new TreeMap<>();
+		StringNumberParser.parsers().forEach((languageCode, parser) -> res.put(languageCode, parser.getClass().getName()));
+		return res;
+	}
+
+	@Override
+	public Map<String, String[]> getConfigVariants() {
+		final Map<String, String[]> res = new TreeMap<>();
+		StringNumberParser.parsers().forEach((languageCode, parser) -> {
+			final Set<ParserConfig> variants = StringNumberParser.configVariants(parser);
+			res.put(languageCode, variants.stream().map(config -> config.asMap().toString()).sorted().toArray(String[]::new));
+		});
+		return res;
+	}
+
+	@Override
+	public Map<String, Integer> getDictionarySizes() {
+		final DictionaryIndex index = LanguageDetector.getIndex();
+		final Map<String, Integer> res = new TreeMap<>();
+		for(int lang = 0; lang < index.languages.length; lang++) {
+			res.put(index.languages[lang], index.sizes[lang]);
+		}
+		return res;
+	}
+
+	@Override
+	public String getDictionarySource() {
+		return LanguageDetector.getIndexSource();
+	}
+
+	@Override
+	public long getDictionaryLoadedAt() {
+		return LanguageDetector.getIndexLoadedAt();
+	}
+
+	@Override
+	public double getDictionaryLoadMillis() {
+		return LanguageDetector.getIndexLoadNanos() / 1e6;
+	}
+
+	@Override
+	public void reloadDictionaries() {
+		LanguageDetector.reloadDictionaries();
+	}
+
+	@Override
+	public Map<String, Long> getResultsCacheStats() {
+		final Map<String, Long> res = new TreeMap<>();
+		StringNumberParser.getCacheStats().ifPresent(stats -> {
+			res.put("hits", stats.getHitCount());
+			res.put("misses", stats.getMissCount());
+			res.put("evictions", stats.getEvictionCount());
+			res.put("size", (long) stats.getSize());
+			res.put("maximumSize", (long) stats.getMaximumSize());
+		});
+		return res;
+	}
+
+	@Override
+	public void flushCaches() {
+		StringNumberParser.flushCaches();
+	}
+
+	@Override
+	public boolean isMetricsEnabled() {
+		return Metrics.installed().isPresent();
+	}
+
+	@Override
+	public void setMetricsEnabled(boolean enabled) {
+		if(!enabled) {
+			Metrics.install(null);
+		} else if(!isMetricsEnabled()) {
+			// Metrics installed by the application are kept.
+			Metrics.install(new DefaultParserMetrics());
+		}
+	}
+
+	@Override
+	public Map<String, Long> getCallCounts() {
+		return collect(DefaultParserMetrics.OperationStats::getCalls);
+	}
+
+	@Override
+	public Map<String, Long> getFailureCounts() {
+		return collect(DefaultParserMetrics.OperationStats::getFailures);
+	}
+
+	@Override
+	public Map<String, Double> getThroughput() {
+		final double seconds = metrics().map(metrics -> Math.max(1L, System.currentTimeMillis() - metrics.getStartedAt()) / 1000.0).orElse(1.0);
+		return collect(stats -> stats.getCalls() / seconds);
+	}
+
+	@Override
+	public Map<String, Long> getLatencyP99Nanos() {
+		return collect(stats -> stats.getLatency().percentileNanos(0.99));
+	}
+
+	@Override
+	public String[] getTopUnrecognizedTokens() {
+		return metrics()
+				.map(metrics -> metrics.getTopUnrecognizedTokens(TOP_TOKENS).stream()
+						.map(token -> token.getA() + "=" + token.getB())
+						.toArray(String[]::new))
+				.orElse(new String[0]);
+	}
+
+	@Override
+	public void resetMetrics() {
+		metrics().ifPresent(DefaultParserMetrics::reset);
+	}
+
+	private static Optional<DefaultParserMetrics> metrics() {
+		return Metrics.installed()
+				.filter(DefaultParserMetrics.class::isInstance)
+				.map(DefaultParserMetrics.class::cast);
+	}
+
+	// "OPERATION/language" -> value of the operation statistics
+	private static <T> Map<String, T> collect(Function<DefaultParserMetrics.OperationStats, T> value) {
+		final Map<String, T> res = new TreeMap<>();
+		metrics().ifPresent(metrics -> {
+			for(ParserMetrics.Operation operation : ParserMetrics.Operation.values()) {
+				metrics.getStats(operation).forEach((languageCode, stats) -> res.put(operation + "/" + languageCode, value.apply(stats)));
+			}
+		});
+		return res;
+	}
+}
@@ -0,0 +1,21 @@
+package kem.tnp.common;
+
+/**
+ * Event of {@linkplain StringNumberParser#textToNumber(String, ParserConfig, String...)} call, recorded as <code>kem.tnp.TextToNumber</code> JFR event.
+ * Created on 18-Oct-26 at 11:30 AM.
+ */
+final class TextToNumberEvent extends ParserEvent {
+	static final String NAME = "kem.tnp.TextToNumber";
+
+	// The result was taken from the results cache
+	boolean cached;
+	long normalizeNanos;
+	long detectNanos;
+	long lookupNanos;
+	long parseNanos;
+	long value;
+
+	TextToNumberEvent() {
+		super(RECORDINGS == null ? null : RECORDINGS.textToNumber());
+	}
+}
@@ -0,0 +1,141 @@
+package kem.tnp.common;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Tokenizer that works on {@linkplain CharSequence} ranges and never creates substrings. Tokens are delimited by whitespace unless
+ * other delimiters are given.
+ * A token is identified by its [start, end) offsets in the original input:
+ * <pre>{@code
+ * for(int s = Tokenizer.tokenStart(input, start, end); s < end; s = Tokenizer.tokenStart(input, e, end)) {
+ *     e = Tokenizer.tokenEnd(input, s, end);
+ *     // token is input[s, e)
+ * }
+ * }</pre>
+ * Created on 18-Oct-26 at 12:10 AM.
+ */
+public final class Tokenizer {
+	/**
+	 * Whitespace delimiters.
+	 */
+	public static final IntPredicate WHITESPACE = Character::isWhitespace;
+
+	private Tokenizer() {
+	}
+
+	/**
+	 * Finds beginning of the next whitespace-delimited token.
+	 *
+	 * @param input input text
+	 * @param from  offset to start looking from (inclusive)
+	 * @param end   end of the input range (exclusive)
+	 * @return offset of the next token first character or <em>end</em> if there are no more tokens
+	 */
+	public static int tokenStart(CharSequence input, int from, int end) {
+		return tokenStart(input, from, end, WHITESPACE);
+	}
+
+	/**
+	 * Finds end of the whitespace-delimited token that starts at the given offset.
+	 *
+	 * @param input input text
+	 * @param from  offset of the token first character
+	 * @param end   end of the input range (exclusive)
+	 * @return offset right after the token last character
+	 */
+	public static int tokenEnd(CharSequence input, int from, int end) {
+		return tokenEnd(input, from, end, WHITESPACE);
+	}
+
+	/**
+	 * Finds beginning of the next token.
+	 *
+	 * @param input      input text
+	 * @param from       offset to start looking from (inclusive)
+	 * @param end        end of the input range (exclusive)
+	 * @param delimiters characters that separate tokens
+	 * @return offset of the next token first character or <em>end</em> if there are no more tokens
+	 */
+	public static int tokenStart(CharSequence input, int from, int end, IntPredicate delimiters) {
+		while(from < end && delimiters.test(input.charAt(from))) {
+			from++;
+		}
+		return from;
+	}
+
+	/**
+	 * Finds end of the token that starts at the given offset.
+	 *
+	 * @param input      input text
+	 * @param from       offset of the token first character
+	 * @param end        end of the input range (exclusive)
+	 * @param delimiters characters that separate tokens
+	 * @return offset right after the token last character
+	 */
+	public static int tokenEnd(CharSequence input, int from, int end, IntPredicate delimiters) {
+		while(from < end && !delimiters.test(input.charAt(from))) {
+			from++;
+		}
+		return from;
+	}
+
+	/**
+	 * Counts whitespace-delimited tokens of the given input range.
+	 *
+	 * @param input input text
+	 * @param start beginning of the input range (inclusive)
+	 * @param end   end of the input range (exclusive)
+	 * @return number of tokens
+	 */
+	public static int countTokens(CharSequence input, int start, int end) {
+		int res = 0;
+		for(int s = tokenStart(input, start, end); s < end; s = tokenStart(input, tokenEnd(input, s, end), end)) {
+			res++;
+		}
+		return res;
+	}
+
+	/**
+	 * Normalizes the given input: its whitespace-delimited tokens are lower-cased and joined by single spaces,
+	 * e.g. " Five  Thousand " -> "five thousand". Inputs that differ in case and spacing only are converted to the same number.
+	 *
+	 * @param input input text
+	 * @return normalized input
+	 */
+	public static String normalize(CharSequence input) {
+		final ParserMetrics metrics = Metrics.current();
+		if(metrics == null) {
+			return doNormalize(input);
+		}
+		final long started = System.nanoTime();
+		final String res = doNormalize(input);
+		metrics.record(ParserMetrics.Operation.NORMALIZE, ParserMetrics.NO_LANGUAGE, System.nanoTime() - started, true);
+		return res;
+	}
+
+	private static String doNormalize(CharSequence input) {
+		final int end = input.length();
+		final StringBuilder res = new StringBuilder(end);
+		for(int s = tokenStart(input, 0, end), e; s < end; s = tokenStart(input, e, end)) {
+			e = tokenEnd(input, s, end);
+			if(res.length() > 0) {
+				res.append(' ');
+			}
+			for(int i = s; i < e; i++) {
+				res.append(Character.toLowerCase(input.charAt(i)));
+			}
+		}
+		return res.toString();
+	}
+
+	/**
+	 * Checks that the given range lies within the given input.
+	 *
+	 * @throws IndexOutOfBoundsException if the range is invalid
+	 */
+	static void checkRange(CharSequence input, int start, int end) {
+		if(start < 0 || end > input.length() || start > end) {
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is out of input bounds [0, " + input.length() + ")");
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package kem.tnp.common;
 
 import java.util.Map;
+import java.util.function.IntPredicate;
 import java.util.function.Supplier;
 
 /**
@@ -9,7 +10,30 @@ import java.util.function.Supplier;
  */
 public class Utils {
 
-	public enum NumberPosition {ONES, TENS, HUNDREDS, GROUPS}
+	public enum NumberPosition {ONES, TENS, HUNDREDS, GROUPS, CONJUNCTIONS}
+
+	/**
+	 * Role of a word in a number phrase.
+	 */
+	public enum TokenRole {
+		/**
+		 * Regular number word e.g. "five" or "thousand".
+		 */
+		NUMBER,
+		/**
+		 * Hundreds word that multiplies the preceding ones word e.g. "hundred" in "five hundred".
+		 * If there is no preceding ones word, it is a regular number word e.g. "hundred" in "hundred and five".
+		 */
+		MULTIPLIER,
+		/**
+		 * Article that stands for "one" in front of a multiplier or a group word e.g. "a" in "a hundred" or "a million".
+		 */
+		ARTICLE,
+		/**
+		 * Word that doesn't affect the number e.g. "and" in "one hundred and seven".
+		 */
+		SKIP
+	}
 
 	/**
 	 * FSM entry point.
@@ -19,14 +43,24 @@ public class Utils {
 	 * Indicates FSM unrecognized event.
 	 */
 	public static final StateWithNumber ERROR = new StateWithNumber(ParsingState.S_Error, -1L);
+	/**
+	 * The "one" an {@linkplain TokenRole#ARTICLE} stands for.
+	 */
+	static final StateWithNumber ARTICLE_ONE = new StateWithNumber(ParsingState.S_1_9, 1L);
 
 	public static class StateWithNumber {
 		public ParsingState state;
 		public Long number;
+		public TokenRole role;
 
 		public StateWithNumber(ParsingState state, Long number) {
+			this(state, number, TokenRole.NUMBER);
+		}
+
+		public StateWithNumber(ParsingState state, Long number, TokenRole role) {
 			this.state = state;
 			this.number = number;
+			this.role = role;
 		}
 
 		@Override
@@ -36,7 +70,30 @@ public class Utils {
 	}
 
 
+	// Reusable lookup key, so the token lookup doesn't allocate.
+	private static final ThreadLocal<CharSpan> SPAN = ThreadLocal.withInitial(CharSpan::new);
+	// Reusable FSM run: parsing is not reentrant, so one run per thread is enough.
+	private static final ThreadLocal<NumberFsm> FSM = ThreadLocal.withInitial(NumberFsm::new);
+
+	/**
+	 * Looks up the given [start, end) token of the input in the supplied FSM maps without creating a substring.
+	 * The FSM maps must be {@linkplain java.util.HashMap}s (see {@linkplain CharSpan}).
+	 *
+	 * @param input input text
+	 * @param start token start offset (inclusive)
+	 * @param end   token end offset (exclusive)
+	 * @param f     language-specific FSM
+	 * @return state and number that correspond to the token or {@linkplain #ERROR} if the token is not recognized
+	 */
+	public static StateWithNumber getState(CharSequence input, int start, int end, Supplier<Map<NumberPosition, Map<String, StateWithNumber>>> f) {
+		return getState(SPAN.get().set(input, start, end), f);
+	}
+
 	public static StateWithNumber getState(String s, Supplier<Map<NumberPosition, Map<String, StateWithNumber>>> f) {
+		return getState((Object) s, f);
+	}
+
+	private static StateWithNumber getState(Object s, Supplier<Map<NumberPosition, Map<String, StateWithNumber>>> f) {
 		final Map<NumberPosition, Map<String, StateWithNumber>> map = f.get();
 		StateWithNumber stateWithNumber = map.get(NumberPosition.ONES).get(s);
 		if(stateWithNumber == null) {
@@ -62,28 +119,156 @@ public class Utils {
 	 * @param fsmSupplier language-specific FSM
 	 * @return numeric form of the given input, e.g. 14246
 	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value
+	 * @see #parseStringNumber(CharSequence, int, int, Lexicon)
+	 * @deprecated the FSM maps are looked up one after another, use {@linkplain #parseStringNumber(CharSequence, Lexicon)} instead
 	 */
+	@Deprecated
+	public static Long parseStringNumber(CharSequence input, Supplier<Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>>> fsmSupplier) throws UnrecognizedTokenException {
+		return parseStringNumber(input, 0, input.length(), fsmSupplier);
+	}
+
+	/**
+	 * Parses the given input using the supplied FSM.
+	 * This overload is kept for binary compatibility with the code compiled against the previous versions.
+	 *
+	 * @param input       number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param fsmSupplier language-specific FSM
+	 * @return numeric form of the given input, e.g. 14246
+	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value
+	 * @deprecated use {@linkplain #parseStringNumber(CharSequence, Lexicon)} instead
+	 */
+	@Deprecated
 	public static Long parseStringNumber(String input, Supplier<Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>>> fsmSupplier) throws UnrecognizedTokenException {
-		long res = 0L, accum = 0L;
-		Utils.StateWithNumber numberedState = Utils.INIT;
-
-		final String[] strings = input.split("\\s+");   // Split the string: "sixty five" -> ["sixty", "five"]
-		for(String s : strings) {
-			// Get to next state based on the current string number
-			numberedState = numberedState.state.nextState(s, fsmSupplier);
-			if(numberedState == Utils.ERROR) {
-				throw new UnrecognizedTokenException(String.format("Unrecognized token \"%s\"", s));
+		return parseStringNumber((CharSequence) input, fsmSupplier);
+	}
+
+	/**
+	 * Parses the given [start, end) range of the input using the supplied FSM.
+	 *
+	 * @param input       number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param start       range start offset (inclusive)
+	 * @param end         range end offset (exclusive)
+	 * @param fsmSupplier language-specific FSM
+	 * @return numeric form of the given input range, e.g. 14246
+	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value
+	 * @throws IndexOutOfBoundsException  if the given range lies outside the input
+	 * @deprecated the FSM maps are looked up one after another, use {@linkplain #parseStringNumber(CharSequence, int, int, Lexicon)} instead
+	 */
+	@Deprecated
+	public static Long parseStringNumber(CharSequence input, int start, int end, Supplier<Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>>> fsmSupplier) throws UnrecognizedTokenException {
+		return parse(input, start, end, (in, from, to) -> getState(in, from, to, fsmSupplier));
+	}
+
+	/**
+	 * Parses the given input using the supplied language lexicon<p/>
+	 * <img src="../common/doc-files/StringToNumberRu.svg" alt="Foo">
+	 *
+	 * @param input   number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param lexicon language-specific FSM lexicon
+	 * @return numeric form of the given input, e.g. 14246
+	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value
+	 * @see #parseStringNumber(CharSequence, int, int, Lexicon)
+	 */
+	public static Long parseStringNumber(CharSequence input, Lexicon lexicon) throws UnrecognizedTokenException {
+		return parse(input, 0, input.length(), lexicon);
+	}
+
+	/**
+	 * Parses the given [start, end) range of the input using the supplied language lexicon.
+	 * The input is tokenized in place by {@linkplain Tokenizer}: token spans are fed to the FSM directly, no substrings are created.
+	 * So a slice of a large {@linkplain StringBuilder} or {@linkplain java.nio.CharBuffer} can be parsed without copying it.
+	 *
+	 * @param input   number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param start   range start offset (inclusive)
+	 * @param end     range end offset (exclusive)
+	 * @param lexicon language-specific FSM lexicon
+	 * @return numeric form of the given input range, e.g. 14246
+	 * @throws UnrecognizedTokenException if the given input cannot be transformed to numeric value
+	 * @throws IndexOutOfBoundsException  if the given range lies outside the input
+	 */
+	public static Long parseStringNumber(CharSequence input, int start, int end, Lexicon lexicon) throws UnrecognizedTokenException {
+		return parse(input, start, end, lexicon);
+	}
+
+	/**
+	 * Parses the given [start, end) range of the input using the supplied language lexicon without throwing on invalid input.
+	 * The outcome (status, offending token offsets) is written to the given reusable result holder.
+	 *
+	 * @param input   number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param start   range start offset (inclusive)
+	 * @param end     range end offset (exclusive)
+	 * @param lexicon language-specific FSM lexicon
+	 * @param result  result holder. Its previous content is cleared
+	 * @return numeric form of the given input range, e.g. 14246, or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 * @throws IndexOutOfBoundsException if the given range lies outside the input
+	 */
+	public static long parseLong(CharSequence input, int start, int end, Lexicon lexicon, ParseResult result) {
+		return parse(input, start, end, lexicon, result.reset());
+	}
+
+	/**
+	 * The greatest number that built-in parsers can render to text: 999 trillion 999 billion 999 million 999 thousand 999.
+	 */
+	public static final long MAX_RENDERABLE = 999_999_999_999_999L;
+
+	/**
+	 * Checks that the given number can be rendered to text by built-in parsers.
+	 *
+	 * @param input a number
+	 * @return the given number
+	 * @throws IllegalArgumentException if the number is negative or greater than {@linkplain #MAX_RENDERABLE}
+	 */
+	public static long checkRenderable(long input) {
+		if(input < 0 || input > MAX_RENDERABLE) {
+			throw new IllegalArgumentException("Number " + input + " is out of supported range [0, " + MAX_RENDERABLE + "]");
+		}
+		return input;
+	}
+
+	private static long parse(CharSequence input, int start, int end, TokenLookup lookup) throws UnrecognizedTokenException {
+		final ParseResult result = new ParseResult();
+		final long res = parse(input, start, end, lookup, result);
+		if(!result.isSuccess()) {
+			throw new UnrecognizedTokenException(result.errorMessage(input));
+		}
+		return res;
+	}
+
+	private static long parse(CharSequence input, int start, int end, TokenLookup lookup, ParseResult result) {
+		Tokenizer.checkRange(input, start, end);
+		final IntPredicate delimiters = lookup.delimiters();
+		final boolean lenient = result.isLenient();
+		final NumberFsm fsm = FSM.get().reset();
+		// Walk over the tokens: "sixty five" -> [0, 5), [6, 10)
+		for(int tokenStart = Tokenizer.tokenStart(input, start, end, delimiters), tokenEnd; tokenStart < end; tokenStart = Tokenizer.tokenStart(input, tokenEnd, end, delimiters)) {
+			tokenEnd = Tokenizer.tokenEnd(input, tokenStart, end, delimiters);
+			if(!fsm.accept(lookup.lookup(input, tokenStart, tokenEnd), tokenStart, tokenEnd, lenient)) {
+				break;
 			}
-			// This is the "millions", "thousands" delimiter.
-			if(numberedState.state == ParsingState.S_Group) {
-				accum *= numberedState.number; // Multiply accumulated value by 10^x
-				res += accum;
-				accum = 0L; // Reset accumulated value
-			} else {
-				accum += numberedState.number;
+		}
+		fsm.end(start);
+		final long res = fsm.writeTo(result);
+		if(result.getStatus() == ParseResult.Status.UNRECOGNIZED_TOKEN) {
+			final ParserMetrics metrics = Metrics.current();
+			if(metrics != null) {
+				metrics.unrecognizedToken(input, result.getErrorStart(), result.getErrorEnd());
 			}
 		}
-		res += accum;
 		return res;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Looks up FSM state and number of a [start, end) token of the input.
+	 */
+	@FunctionalInterface
+	interface TokenLookup {
+		StateWithNumber lookup(CharSequence input, int start, int end);
+
+		/**
+		 * @return characters that separate tokens
+		 */
+		default IntPredicate delimiters() {
+			return Tokenizer.WHITESPACE;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package kem.tnp.common;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Durations of the {@linkplain StringNumberParser#warmUp(int) warm-up} stages.
+ * Created on 18-Oct-26 at 8:20 AM.
+ */
+public final class WarmUpReport {
+	/**
+	 * Warm-up stage.
+	 */
+	public enum Stage {
+		/**
+		 * Loading of the registered {@linkplain LangNumberParser parsers}.
+		 */
+		REGISTRY,
+		/**
+		 * Building of the parsers lexicons and number rendering tables.
+		 */
+		LEXICONS,
+		/**
+		 * Loading of the {@linkplain LanguageDetector language detector} dictionaries.
+		 */
+		DICTIONARIES,
+		/**
+		 * Running of the JIT warm-up corpus through the hot paths.
+		 */
+		JIT
+	}
+
+	private final Map<Stage, Long> durations = new EnumMap<>(Stage.class);
+
+	WarmUpReport() {
+	}
+
+	/**
+	 * Records duration of the given stage.
+	 *
+	 * @param stage   completed stage
+	 * @param started {@linkplain System#nanoTime()} the stage was started at
+	 * @return current {@linkplain System#nanoTime()}, i.e. start time of the next stage
+	 */
+	long stageDone(Stage stage, long started) {
+		final long now = System.nanoTime();
+		durations.put(stage, now - started);
+		return now;
+	}
+
+	/**
+	 * @return stage -> its duration in nanoseconds. Stages that weren't run are absent
+	 */
+	public Map<Stage, Long> getDurations() {
+		return Collections.unmodifiableMap(durations);
+	}
+
+	/**
+	 * @return total duration of all stages in nanoseconds
+	 */
+	public long getTotalNanos() {
+		long res = 0;
+		for(long duration : durations.values()) {
+			res += duration;
+		}
+		return res;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder res = new StringBuilder("WarmUpReport[");
+		for(Map.Entry<Stage, Long> duration : durations.entrySet()) {
+			res.append(duration.getKey()).append('=').append(String.format("%.3f", duration.getValue() / 1e6)).append(" ms, ");
+		}
+		return res.append("total=").append(String.format("%.3f", getTotalNanos() / 1e6)).append(" ms]").toString();
+	}
+}
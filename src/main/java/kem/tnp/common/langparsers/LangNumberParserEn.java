@@ -2,13 +2,20 @@ package kem.tnp.common.langparsers;
 
 import kem.tnp.common.LangNumberParser;
 import kem.tnp.common.LanguageHandler;
+import kem.tnp.common.Lexicon;
+import kem.tnp.common.ParseResult;
+import kem.tnp.common.ParserConfig;
 import kem.tnp.common.ParsingState;
 import kem.tnp.common.Utils;
 
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class contains methods that convert the given input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246 and vise versa
@@ -17,54 +24,124 @@ import java.util.function.Supplier;
  */
 @LanguageHandler(languageCode = "en")
 public class LangNumberParserEn implements LangNumberParser {
-	private static final String REGEX_HUNDREDS = "(?i)\\s+(h)";      // five hundreds -> five_hundreds
-	private static final String REGEX_XTY_Y = "(?i)ty\\s*-\\s*(\\w)";   // twenty-four -> twenty four
-	private static final String REGEX_A_X = "(?i)a\\s+(thousand|million|billion|trillion)";  // a million -> one million
+	private static final String ONE_PREFIX = "onePrefix";
+	private static final String USE_HYPHEN = "useHyphen";
 
-	private String onePrefix = "one";
-	private boolean useHyphen = true;
+	private final ParserConfig config;
+	private final String onePrefix;     // "one" in "one hundred" or "a" in "a hundred"
+	private final String tensDelimiter; // "-" in "twenty-four" or " " in "twenty four"
+	// Output tables of this configuration. Built on the first render and shared by all the parsers with the same configuration.
+	private Chunks chunks;
 
 	/**
-	 * Configures this parser.
+	 * Creates English parser with default configuration.
+	 */
+	public LangNumberParserEn() {
+		this(ParserConfig.EMPTY);
+	}
+
+	private LangNumberParserEn(ParserConfig config) {
+		this.config = config;
+		this.onePrefix = config.getString(ONE_PREFIX, "one");
+		this.tensDelimiter = config.getBoolean(USE_HYPHEN, true) ? "-" : " ";
+	}
+
+	/**
+	 * Creates English parser variant that applies the given configuration.
 	 * This implementation recognizes the following configurations:<ul>
 	 * <li>["onePrefix"->"a|one"] -- if "a" then 100 -> "<strong>a</strong> hundred"; if "one" then 100 -> "<strong>one</strong> hundred". Default is "<strong>one</strong>"</li>
 	 * <li>["useHyphen"->"true|false"] -- if "true" then 24 -> "twenty<strong>-</strong>four"; if "false" then 24 -> "twenty<strong> </strong>four". Default is "<strong>-</strong>"</li>
 	 * </ul>
-	 * Unrecognized configuration won't affect this instance.
+	 * Unrecognized configuration is ignored. This instance is never modified.
+	 *
+	 * @param config configuration parameters
+	 * @return new immutable parser with the given configuration applied on top of this instance configuration
+	 */
+	@Override
+	public LangNumberParserEn configure(@NotNull ParserConfig config) {
+		final ParserConfig merged = this.config.with(config.asMap());
+		return merged.equals(this.config) ? this : new LangNumberParserEn(merged);
+	}
+
+	/**
+	 * Configures this parser.
+	 * This implementation returns a new parser variant, see {@linkplain #configure(ParserConfig)} for the recognized configurations.
+	 *
+	 * @param params configuration parameters
+	 * @return new immutable parser with the given configurations applied
+	 * @see #configure(ParserConfig)
+	 */
+	@Override
+	public LangNumberParser with(@NotNull Map<String, Object> params) {
+		return configure(ParserConfig.of(params));
+	}
+
+	/**
+	 * Configures this parser.
+	 * This implementation returns a new parser variant, see {@linkplain #configure(ParserConfig)} for the recognized configurations.
 	 *
 	 * @param key   configuration key
 	 * @param value configuration value
-	 * @return this instance with applied configuration
+	 * @return new immutable parser with the given configuration applied
 	 * @see LangNumberParser#with(Map)
+	 * @see #configure(ParserConfig)
 	 */
+	@Override
 	public LangNumberParser with(@NotNull String key, @NotNull Object value) {
-		switch(key.toLowerCase()) {
-			case "oneprefix":
-				this.onePrefix = (String) value;
-				break;
-			case "usehyphen":
-				this.useHyphen = Boolean.parseBoolean((String) value);
-				break;
-		}
-		return this;
+		return configure(ParserConfig.of(key, value));
 	}
 
 	/**
 	 * Converts the given input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246<p/>
-	 * This implementation uses {@link Utils#parseStringNumber(String, Supplier)} method providing English parser FSM.
+	 * This implementation uses {@link Utils#parseStringNumber(CharSequence, Lexicon)} method providing English parser FSM.
 	 *
 	 * @param input number in text form e.g. "fourteen thousands two hundreds forty-six"
 	 * @return numeric form of the given input
+	 * @see #stringToNumber(CharSequence, int, int)
 	 */
 	public Long stringToNumber(String input) {
-		String adapted = input
-				.replaceAll(REGEX_HUNDREDS, "_$1")  // five hundreds -> five_hundreds
-				.replaceAll(REGEX_XTY_Y, "ty $1")   // twenty-four -> twenty four
-				.replaceAll(REGEX_A_X, "one $1")   // twenty-four -> twenty four
-				.replace(" and", "")    // five hundreds and seven -> five hundreds seven
-				.toLowerCase();
-		Supplier<Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>>> mapSupplier = () -> NUM_POS;
-		return Utils.parseStringNumber(adapted, mapSupplier);
+		return Utils.parseStringNumber(input, LEXICON);
+	}
+
+	/**
+	 * Converts the given [start, end) range of the input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246<p/>
+	 * The range is normalized while it is tokenized, in a single pass and without intermediate strings:<ul>
+	 * <li>case is ignored: "Five Hundred" -> "five hundred"</li>
+	 * <li>hyphen separates words: "twenty-four" -> "twenty four"</li>
+	 * <li>"hundred(s)" multiplies the preceding ones: "five hundred" -> 500</li>
+	 * <li>"a" stands for "one" in front of "hundred" or a group: "a thousand" -> "one thousand"</li>
+	 * <li>"and" is skipped: "five hundred and seven" -> "five hundred seven"</li>
+	 * </ul>
+	 *
+	 * @param input number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param start range start offset (inclusive)
+	 * @param end   range end offset (exclusive)
+	 * @return numeric form of the given input range
+	 */
+	@Override
+	public Long stringToNumber(CharSequence input, int start, int end) {
+		return Utils.parseStringNumber(input, start, end, LEXICON);
+	}
+
+	/**
+	 * Converts the given [start, end) range of the input e.g. "fourteen thousands two hundreds forty-six" to its numeric form -- 14246
+	 * without boxing and without throwing on invalid input.
+	 * This implementation uses {@link Utils#parseLong(CharSequence, int, int, Lexicon, ParseResult)} method providing English parser FSM.
+	 *
+	 * @param input  number in text form e.g. "fourteen thousands two hundreds forty-six"
+	 * @param start  range start offset (inclusive)
+	 * @param end    range end offset (exclusive)
+	 * @param result reusable result holder that receives the conversion status and the offending token offsets
+	 * @return numeric form of the given input range or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 */
+	@Override
+	public long parseLong(CharSequence input, int start, int end, ParseResult result) {
+		return Utils.parseLong(input, start, end, LEXICON, result);
+	}
+
+	@Override
+	public Lexicon lexicon() {
+		return LEXICON;
 	}
 
 	/**
@@ -72,78 +149,104 @@ public class LangNumberParserEn implements LangNumberParser {
 	 *
 	 * @param input a number
 	 * @return text form of the given input
+	 * @see #render(long, Appendable)
 	 */
-	public String numberToString(Long input) {// 42_517_234_583L
-		int n;
-		String group;
-		String res;
-		long ten03 = (input / 1_000L); // 42_517_234
-		n = (int) (input % 1_000L); // 583
-		res = num2Str(n, "").toString();
-		if(ten03 > 0) {
-			long ten06 = (ten03 / 1_000L);
-			n = (int) (ten03 % 1_000L); // 234
-			group = " thousand ";
-			res = num2Str(n, group) + res;
-			if(ten06 > 0) {
-				long ten09 = (ten06 / 1_000L);
-				n = (int) (ten06 % 1_000L);
-				group = " million ";
-				res = num2Str(n, group) + res;
-				if(ten09 > 0) {
-					int ten12 = (int) (ten09 / 1_000L);
-					n = (int) (ten09 % 1_000L); // 42
-					group = " billion ";
-					res = num2Str(n, group) + res;
-					if(ten12 > 0) {
-						n = (int) (ten12 % 1_000L); // 42
-						group = " trillion ";
-						res = num2Str(n, group) + res;
-					}
-				}
+	public String numberToString(Long input) {
+		return render(input, new StringBuilder(64)).toString();
+	}
+
+	/**
+	 * Appends text form of the given input e.g. 14246 -- "fourteen thousand two hundred and forty-six" to the given output.<p/>
+	 * Groups are written from the most significant (trillions) to the least significant (units) one straight into the output:
+	 * every group costs a lookup in the precomputed 1-999 renderings of this configuration and two appends.
+	 * Empty groups are omitted: 1_000_005 -> "one million and five".
+	 *
+	 * @param input a number, see {@linkplain Utils#checkRenderable(long)}
+	 * @param out   output to append to
+	 * @return the given output
+	 * @throws IOException if the output fails
+	 */
+	@Override
+	public Appendable render(long input, Appendable out) throws IOException {
+		Utils.checkRenderable(input);
+		final Chunks chunks = chunks();
+		boolean empty = true;
+		for(int i = 0; i < GROUP_SIZES.length; i++) {
+			final int n = (int) (input / GROUP_SIZES[i] % 1_000L); // 42_517_234_583 / 1_000_000_000 % 1_000 -> 42
+			if(n > 0) {
+				if(!empty) out.append(' ');
+				out.append(chunks.groups[n]).append(GROUP_NAMES[i]);
+				empty = false;
 			}
 		}
-		if(res.equals("and one"))
-			return "one";
-		return res.trim();
+		final int n = (int) (input % 1_000L); // 583
+		if(n > 0) {
+			if(!empty) out.append(' ');
+			out.append(empty ? chunks.units[n] : chunks.lastUnits[n]);
+		}
+		return out;
 	}
 
-	private StringBuilder num2Str(int input, String group) {// 573 | 517
-		StringBuilder res = new StringBuilder();
-		int n;
-		n = input / 100; // 5 | 5
-		if(n > 0) {
-			String hundred = HUNDREDS_MAP_R.get(n * 100);
-			if(n == 1) {
-				res.append(onePrefix).append(" ");
-			}
-			res.append(hundred); // 500-> "пятьсот" | 500-> "пятьсот"
+	private Chunks chunks() {
+		// Chunks instance is immutable, so a racy initialization may only look it up twice.
+		Chunks res = chunks;
+		if(res == null) {
+			chunks = res = CHUNKS.computeIfAbsent(Arrays.asList(onePrefix, tensDelimiter), k -> new Chunks(onePrefix, tensDelimiter));
 		}
+		return res;
+	}
+
+	/**
+	 * Renderings of 1-999 values for a particular configuration, indexed by the value.
+	 */
+	private static final class Chunks {
+		final String[] groups = new String[1_000];    // in front of a group name: 105-> "one hundred five" (thousand)
+		final String[] units = new String[1_000];     // units group alone: 105-> "one hundred and five", 5-> "five"
+		final String[] lastUnits = new String[1_000]; // units group after another group: 5-> "and five" (one thousand and five)
 
-		input = input - (input / 100 * 100); // 73 | 17
-		if(input == 0) {
-			return res.append(group);
+		Chunks(String onePrefix, String tensDelimiter) {
+			final StringBuilder sb = new StringBuilder(32);
+			for(int i = 1; i < groups.length; i++) {
+				groups[i] = num2Str(i, onePrefix, tensDelimiter, false, sb);
+				units[i] = num2Str(i, onePrefix, tensDelimiter, true, sb);
+				lastUnits[i] = i < 10 ? "and " + units[i] : units[i];
+			}
 		}
-		n = input / 10; // 7 | 1
-		if(res.length() > 0) res.append(" ");
-		if(n > 1) { // 20-90
-			res.append(TENS_MAP_R.get(n * 10)); // 70-> "семьдесят"
-			n = input % 10; // 3
+
+		private static String num2Str(int input, String onePrefix, String tensDelimiter, boolean units, StringBuilder res) {// 573 | 517 | 105
+			res.setLength(0);
+			int n = input / 100; // 5 | 5 | 1
 			if(n > 0) {
-				res.append(useHyphen ? "-" : " ").append(ONES_MAP_R.get(n)); // 3-> "три"
+				res.append(n == 1 ? onePrefix + " " + HUNDREDS_MAP_R.get(100) : HUNDREDS_MAP_R.get(n * 100)); // 500-> "five hundred" | 100-> "a hundred"
 			}
-		} else { // 11-19 or 0
-			if(n == 1) { // 11-19
-				res.append(TENS_MAP_R.get(input)); // 17-> "семнадцать"
-			} else { // 0
-				if(group.isEmpty())
+			input = input % 100; // 73 | 17 | 5
+			if(input == 0) {
+				return res.toString();
+			}
+			if(n > 0) res.append(' ');
+			if(input >= 20) { // 20-99
+				res.append(TENS_MAP_R.get(input / 10 * 10)); // 70-> "seventy"
+				n = input % 10; // 3
+				if(n > 0) {
+					res.append(tensDelimiter).append(ONES_MAP_R.get(n)); // 3-> "three"
+				}
+			} else if(input >= 10) { // 10-19
+				res.append(TENS_MAP_R.get(input)); // 17-> "seventeen"
+			} else { // 1-9
+				if(units && n > 0) // "and" joins the last ones to the hundreds of the units group only
 					res.append("and ");
-				res.append(ONES_MAP_R.get(input)); // 3-> "три"
+				res.append(ONES_MAP_R.get(input)); // 5-> "five"
 			}
+			return res.toString();
 		}
-		return res.append(group);
 	}
 
+	// Output tables of every configuration rendered so far
+	private static final ConcurrentMap<List<String>, Chunks> CHUNKS = new ConcurrentHashMap<>();
+	// Group sizes and names, from the most significant group to the least significant one. Units group has no name.
+	private static final long[] GROUP_SIZES = {1_000_000_000_000L, 1_000_000_000L, 1_000_000L, 1_000L};
+	private static final String[] GROUP_NAMES = {" trillion", " billion", " million", " thousand"};
+
 	private static final Map<String, Utils.StateWithNumber> ONES_MAP = new HashMap<>();
 	private static final Map<Integer, String> ONES_MAP_R = new HashMap<>();
 
@@ -154,7 +257,10 @@ public class LangNumberParserEn implements LangNumberParser {
 	private static final Map<Integer, String> HUNDREDS_MAP_R = new HashMap<>();
 
 	private static final Map<String, Utils.StateWithNumber> GROUPS_MAP = new HashMap<>();
+	private static final Map<String, Utils.StateWithNumber> CONJUNCTIONS_MAP = new HashMap<>();
 	private static final Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>> NUM_POS = new HashMap<>();
+	// All the FSM tables above compiled into a single lookup structure.
+	private static final Lexicon LEXICON;
 
 	static {
 		// ---------------- ONES ----------------
@@ -220,17 +326,9 @@ public class LangNumberParserEn implements LangNumberParser {
 
 
 		// ---------------- HUNDREDS ----------------
-		HUNDREDS_MAP.put("hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 100L));
-		HUNDREDS_MAP.put("a_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 100L));
-		HUNDREDS_MAP.put("one_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 100L));
-		HUNDREDS_MAP.put("two_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 200L));
-		HUNDREDS_MAP.put("three_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 300L));
-		HUNDREDS_MAP.put("four_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 400L));
-		HUNDREDS_MAP.put("five_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 500L));
-		HUNDREDS_MAP.put("six_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 600L));
-		HUNDREDS_MAP.put("seven_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 700L));
-		HUNDREDS_MAP.put("eight_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 800L));
-		HUNDREDS_MAP.put("nine_hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 900L));
+		// "hundred" multiplies the preceding ones word: "five hundred" -> 500
+		HUNDREDS_MAP.put("hundred", new Utils.StateWithNumber(ParsingState.S_100_900, 100L, Utils.TokenRole.MULTIPLIER));
+		HUNDREDS_MAP.put("hundreds", new Utils.StateWithNumber(ParsingState.S_100_900, 100L, Utils.TokenRole.MULTIPLIER));
 
 		HUNDREDS_MAP_R.put(100, "hundred");
 		HUNDREDS_MAP_R.put(200, "two hundred");
@@ -244,14 +342,26 @@ public class LangNumberParserEn implements LangNumberParser {
 
 		// ---------------- GROUPS ----------------
 		GROUPS_MAP.put("thousand", new Utils.StateWithNumber(ParsingState.S_Group, 1_000L));
-		GROUPS_MAP.put("a_thousand", new Utils.StateWithNumber(ParsingState.S_Group, 1_000L));
+		GROUPS_MAP.put("thousands", new Utils.StateWithNumber(ParsingState.S_Group, 1_000L));
 		GROUPS_MAP.put("million", new Utils.StateWithNumber(ParsingState.S_Group, 1_000_000L));
+		GROUPS_MAP.put("millions", new Utils.StateWithNumber(ParsingState.S_Group, 1_000_000L));
 		GROUPS_MAP.put("billion", new Utils.StateWithNumber(ParsingState.S_Group, 1_000_000_000L));
+		GROUPS_MAP.put("billions", new Utils.StateWithNumber(ParsingState.S_Group, 1_000_000_000L));
 		GROUPS_MAP.put("trillion", new Utils.StateWithNumber(ParsingState.S_Group, 1_000_000_000_000L));
+		GROUPS_MAP.put("trillions", new Utils.StateWithNumber(ParsingState.S_Group, 1_000_000_000_000L));
+
+		// ---------------- CONJUNCTIONS ----------------
+		// "a" is "one" in "a hundred", "a thousand" etc.
+		CONJUNCTIONS_MAP.put("a", new Utils.StateWithNumber(ParsingState.S_1_9, 1L, Utils.TokenRole.ARTICLE));
+		// "and" is skipped: "five hundred and seven" -> "five hundred seven"
+		CONJUNCTIONS_MAP.put("and", new Utils.StateWithNumber(ParsingState.S_Error, 0L, Utils.TokenRole.SKIP));
 
 		NUM_POS.put(Utils.NumberPosition.ONES, ONES_MAP);
 		NUM_POS.put(Utils.NumberPosition.TENS, TENS_MAP);
 		NUM_POS.put(Utils.NumberPosition.HUNDREDS, HUNDREDS_MAP);
 		NUM_POS.put(Utils.NumberPosition.GROUPS, GROUPS_MAP);
+		NUM_POS.put(Utils.NumberPosition.CONJUNCTIONS, CONJUNCTIONS_MAP);
+
+		LEXICON = Lexicon.of(NUM_POS, '-');
 	}
 }
\ No newline at end of file
@@ -2,12 +2,14 @@ package kem.tnp.common.langparsers;
 
 import kem.tnp.common.LangNumberParser;
 import kem.tnp.common.LanguageHandler;
+import kem.tnp.common.Lexicon;
+import kem.tnp.common.ParseResult;
 import kem.tnp.common.ParsingState;
 import kem.tnp.common.Utils;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Supplier;
 
 /**
  * This class contains methods that convert the given input e.g. "четырнадцать тысяч двести сорок шесть" to its numeric form -- 14246 and vise versa<p/>
@@ -20,15 +22,49 @@ public class LangNumberParserRu implements LangNumberParser {
 
 	/**
 	 * Converts the given input e.g. "четырнадцать тысяч двести сорок шесть" to its numeric form -- 14246<p/>
-	 * This implementation uses {@link Utils#parseStringNumber(String, Supplier)} method providing Russian parser FSM.
+	 * This implementation uses {@link Utils#parseStringNumber(CharSequence, Lexicon)} method providing Russian parser FSM.
 	 *
 	 * @param input number as text e.g. "четырнадцать тысяч двести сорок шесть"
 	 * @return numeric form of the given input
 	 * This method must be marked with {@link LanguageHandler} annotation. The {@link LanguageHandler#languageCode()} parameter indicates language (code) that is covered by this parser
 	 */
 	public Long stringToNumber(String input) {
-		Supplier<Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>>> mapSupplier = () -> NUM_POS;
-		return Utils.parseStringNumber(input, mapSupplier);
+		return Utils.parseStringNumber(input, LEXICON);
+	}
+
+	/**
+	 * Converts the given [start, end) range of the input e.g. "четырнадцать тысяч двести сорок шесть" to its numeric form -- 14246<p/>
+	 * This implementation parses the range in place, no substrings are created.
+	 *
+	 * @param input number as text e.g. "четырнадцать тысяч двести сорок шесть"
+	 * @param start range start offset (inclusive)
+	 * @param end   range end offset (exclusive)
+	 * @return numeric form of the given input range
+	 */
+	@Override
+	public Long stringToNumber(CharSequence input, int start, int end) {
+		return Utils.parseStringNumber(input, start, end, LEXICON);
+	}
+
+	/**
+	 * Converts the given [start, end) range of the input e.g. "четырнадцать тысяч двести сорок шесть" to its numeric form -- 14246
+	 * without boxing and without throwing on invalid input.
+	 * This implementation uses {@link Utils#parseLong(CharSequence, int, int, Lexicon, ParseResult)} method providing Russian parser FSM.
+	 *
+	 * @param input  number in text form e.g. "четырнадцать тысяч двести сорок шесть"
+	 * @param start  range start offset (inclusive)
+	 * @param end    range end offset (exclusive)
+	 * @param result reusable result holder that receives the conversion status and the offending token offsets
+	 * @return numeric form of the given input range or {@linkplain ParseResult#NO_VALUE} if the input cannot be converted
+	 */
+	@Override
+	public long parseLong(CharSequence input, int start, int end, ParseResult result) {
+		return Utils.parseLong(input, start, end, LEXICON, result);
+	}
+
+	@Override
+	public Lexicon lexicon() {
+		return LEXICON;
 	}
 
 	/**
@@ -36,128 +72,131 @@ public class LangNumberParserRu implements LangNumberParser {
 	 *
 	 * @param input a number
 	 * @return text form of the given input
+	 * @see #render(long, Appendable)
+	 */
+	public String numberToString(Long input) {
+		return render(input, new StringBuilder(128)).toString();
+	}
+
+	/**
+	 * Appends text form of the given input e.g. 14246 -- "четырнадцать тысяч двести сорок шесть" to the given output.<p/>
+	 * Groups are written from the most significant (триллионы) to the least significant (единицы) one straight into the output:
+	 * every group costs a lookup in the precomputed 1-999 renderings and two appends. Empty groups are omitted: 1_000_005 -> "один миллион пять".
+	 * Group name agrees with the group value: "одна тысяча", "две тысячи", "пять тысяч", "двенадцать тысяч".
+	 *
+	 * @param input a number, see {@linkplain Utils#checkRenderable(long)}
+	 * @param out   output to append to
+	 * @return the given output
+	 * @throws IOException if the output fails
+	 */
+	@Override
+	public Appendable render(long input, Appendable out) throws IOException {
+		Utils.checkRenderable(input);
+		boolean empty = true;
+		for(int i = 0; i < Chunks.GROUP_SIZES.length; i++) {
+			final int n = (int) (input / Chunks.GROUP_SIZES[i] % 1_000L); // 42_517_234_583 / 1_000_000_000 % 1_000 -> 42
+			if(n > 0) {
+				if(!empty) out.append(' ');
+				out.append(Chunks.GROUP_CHUNKS[i][n]).append(Chunks.GROUP_WORDS[i][n]);
+				empty = false;
+			}
+		}
+		final int n = (int) (input % 1_000L); // 583
+		if(n > 0) {
+			if(!empty) out.append(' ');
+			out.append(Chunks.MASCULINE[n]);
+		}
+		return out;
+	}
+
+	/**
+	 * Renderings of 1-999 values and the matching group names, indexed by the value.
+	 * The tables are built when the first number is rendered (holder class initialization is lazy and thread-safe).
 	 */
-	public String numberToString(Long input) {// 42_517_234_583L
-		int n;
-		String group;
-		String res;
-		long ten03 = (input / 1_000L); // 42_517_234
-		n = (int) (input % 1_000L); // 583
-		res = num2Str(n, "").toString();
-		if(ten03 > 0) {
-			long ten06 = (ten03 / 1_000L);
-			n = (int) (ten03 % 1_000L); // 234
+	private static final class Chunks {
+		// Group sizes, from the most significant group to the least significant one. Units group has no name.
+		static final long[] GROUP_SIZES = {1_000_000_000_000L, 1_000_000_000L, 1_000_000L, 1_000L};
+		static final String[] MASCULINE = new String[1_000]; // 1-> "один", 22-> "двадцать два"
+		static final String[] FEMININE = new String[1_000];  // 1-> "одна", 22-> "двадцать две" (тысячи)
+		// Value renderings and group names of every group e.g. GROUP_WORDS[3][22] -> " тысячи"
+		static final String[][] GROUP_CHUNKS = {MASCULINE, MASCULINE, MASCULINE, FEMININE};
+		static final String[][] GROUP_WORDS = new String[GROUP_SIZES.length][1_000];
+
+		static {
+			final String[][] forms = {
+					{" триллион", " триллиона", " триллионов"},
+					{" миллиард", " миллиарда", " миллиардов"},
+					{" миллион", " миллиона", " миллионов"},
+					{" тысяча", " тысячи", " тысяч"}
+			};
+			final StringBuilder sb = new StringBuilder(48);
+			for(int i = 1; i < MASCULINE.length; i++) {
+				MASCULINE[i] = num2Str(i, false, sb);
+				FEMININE[i] = num2Str(i, true, sb);
+				final int form = pluralForm(i);
+				for(int g = 0; g < GROUP_WORDS.length; g++) {
+					GROUP_WORDS[g][i] = forms[g][form];
+				}
+			}
+		}
+
+		/**
+		 * Selects group name form that agrees with the given group value.
+		 *
+		 * @param n 1-999 group value
+		 * @return 0 for 1, 21, 31 ("тысяча"); 1 for 2-4, 22-24 ("тысячи"); 2 for the rest, including 11-14 ("тысяч")
+		 */
+		private static int pluralForm(int n) {
+			final int tens = n % 100;
+			if(tens > 10 && tens < 15) {
+				return 2;
+			}
 			switch(n % 10) {
 				case 1:
-					group = " тысяча ";
-					break;
+					return 0;
 				case 2:
 				case 3:
 				case 4:
-					if(n % 100 > 11 && n % 100 < 15) group = " тысяч ";
-					else group = " тысячи ";
-					break;
+					return 1;
 				default:
-					group = " тысяч ";
-			}
-			res = num2Str(n, group) + res;
-			if(ten06 > 0) {
-				long ten09 = (ten06 / 1_000L);
-				n = (int) (ten06 % 1_000L);
-				switch(n % 10) {
-					case 1:
-						group = " миллион ";
-						break;
-					case 2:
-					case 3:
-					case 4:
-						if(n % 100 > 11 && n % 100 < 15) group = " миллионов ";
-						else group = " миллиона ";
-						break;
-					default:
-						group = " миллионов ";
-				}
-				res = num2Str(n, group) + res;
-				if(ten09 > 0) {
-					int ten12 = (int) (ten09 / 1_000L);
-					n = (int) (ten09 % 1_000L); // 42
-					switch(n % 10) {
-						case 1:
-							group = " миллиард ";
-							break;
-						case 2:
-						case 3:
-						case 4:
-							if(n % 100 > 11 && n % 100 < 15) group = " миллиардов ";
-							else group = " миллиарда ";
-							break;
-						default:
-							group = " миллиардов ";
-					}
-					res = num2Str(n, group) + res;
-					if(ten12 > 0) {
-						n = (int) (ten12 % 1_000L); // 42
-						switch(n % 10) {
-							case 1:
-								group = " триллион ";
-								break;
-							case 2:
-							case 3:
-							case 4:
-								if(n % 100 > 11 && n % 100 < 15) group = " триллионов ";
-								else group = " триллиона ";
-								break;
-							default:
-								group = " триллионов ";
-						}
-						res = num2Str(n, group) + res;
-					}
-				}
+					return 2;
 			}
 		}
-		return res.trim();
-	}
-
-	private StringBuilder num2Str(int input, String group) {// 573 | 517
-		StringBuilder res = new StringBuilder();
-		int n;
-		n = input / 100; // 5 | 5
-		if(n > 0) {
-			res.append(HUNDREDS_MAP_R.get(n * 100)); // 500-> "пятьсот" | 500-> "пятьсот"
-		}
 
-		input = input - (input / 100 * 100); // 73 | 17
-		if(input == 0) {
-			return res.append(group);
-		}
-		n = input / 10; // 7 | 1
-		if(res.length() > 0) res.append(" ");
-		if(n > 1) { // 20-90
-			res.append(TENS_MAP_R.get(n * 10)); // 70-> "семьдесят"
-			n = input % 10; // 3
-			if(group.equalsIgnoreCase(" тысяча ") || group.equalsIgnoreCase(" тысячи ")) {
-				res.append(" ");
-				switch(n) {
-					case 1:
-					case 2:
-						res.append(ONES_MAP_R.get(n * 10));
-						break;
-					default:
-						res.append(ONES_MAP_R.get(n));
-				}
-			} else {
-				if(n > 0) {
-					res.append(" ").append(ONES_MAP_R.get(n)); // 3-> "три"
+		/**
+		 * Renders the given 1-999 value.
+		 *
+		 * @param input    1-999 value e.g. 573
+		 * @param feminine whether the value counts a feminine group name, i.e. thousands: "одна тысяча", "две тысячи"
+		 * @param res      reusable builder
+		 * @return text form of the given value
+		 */
+		private static String num2Str(int input, boolean feminine, StringBuilder res) {// 573 | 517
+			res.setLength(0);
+			int n = input / 100; // 5 | 5
+			if(n > 0) {
+				res.append(HUNDREDS_MAP_R.get(n * 100)); // 500-> "пятьсот" | 500-> "пятьсот"
+			}
+			input = input % 100; // 73 | 17
+			if(input == 0) {
+				return res.toString();
+			}
+			if(n > 0) res.append(' ');
+			if(input >= 20) { // 20-99
+				res.append(TENS_MAP_R.get(input / 10 * 10)); // 70-> "семьдесят"
+				input = input % 10; // 3
+				if(input == 0) {
+					return res.toString();
 				}
+				res.append(' ');
+			} else if(input >= 10) { // 10-19
+				return res.append(TENS_MAP_R.get(input)).toString(); // 17-> "семнадцать"
 			}
-		} else { // 11-19 or 0
-			if(n == 1) { // 11-19
-				res.append(TENS_MAP_R.get(input)); // 17-> "семнадцать"
-			} else { // 0
-				res.append(ONES_MAP_R.get(input)); // 3-> "три"
+			if(feminine && input < 3) { // 1-> "одна", 2-> "две"
+				return res.append(ONES_MAP_R.get(input * 10)).toString();
 			}
+			return res.append(ONES_MAP_R.get(input)).toString(); // 3-> "три"
 		}
-		return res.append(group);
 	}
 
 	private static final Map<String, Utils.StateWithNumber> ONES_MAP = new HashMap<>();
@@ -171,6 +210,8 @@ public class LangNumberParserRu implements LangNumberParser {
 
 	private static final Map<String, Utils.StateWithNumber> GROUPS_MAP = new HashMap<>();
 	private static final Map<Utils.NumberPosition, Map<String, Utils.StateWithNumber>> NUM_POS = new HashMap<>();
+	// All the FSM tables above compiled into a single lookup structure.
+	private static final Lexicon LEXICON;
 
 	static {
 		// ---------------- ONES ----------------
@@ -280,5 +321,7 @@ public class LangNumberParserRu implements LangNumberParser {
 		NUM_POS.put(Utils.NumberPosition.TENS, TENS_MAP);
 		NUM_POS.put(Utils.NumberPosition.HUNDREDS, HUNDREDS_MAP);
 		NUM_POS.put(Utils.NumberPosition.GROUPS, GROUPS_MAP);
+
+		LEXICON = Lexicon.of(NUM_POS);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package kem.tnp.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created on 18-Oct-26 at 4:10 PM.
+ */
+class DictionaryIndexTest {
+
+	@Test
+	void readStream() throws IOException {
+		final DictionaryIndex index = DictionaryIndex.of(Arrays.asList(
+				DictionaryIndex.Dictionary.parse("en", Arrays.asList("#scripts=LATIN", "five", "one", "is")),
+				DictionaryIndex.Dictionary.parse("it", Arrays.asList("cinque", "uno", "is")),
+				DictionaryIndex.Dictionary.parse("ru", Arrays.asList("пять", "один"))));
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		index.write(out);
+
+		final DictionaryIndex read = DictionaryIndex.read(new ByteArrayInputStream(out.toByteArray()));
+		assertArrayEquals(new String[]{"en", "it", "ru"}, read.languages);
+		assertArrayEquals(index.sizes, read.sizes);
+		assertArrayEquals(index.scriptLanguages, read.scriptLanguages);
+		for(String word : Arrays.asList("five", "uno", "is", "пять", "zaza")) {
+			assertEquals(index.lookup(word, 0, word.length()), read.lookup(word, 0, word.length()), word);
+		}
+		assertEquals(0b011L, read.lookup("is", 0, 2));
+		assertEquals(0b001L, DictionaryIndex.of(Collections.singletonList(DictionaryIndex.Dictionary.parse("en", Arrays.asList("Five", "ONE"))))
+				.lookup("one", 0, 3));
+		assertEquals(0b100L, read.languagesOf(Script.CYRILLIC.mask()));
+
+		final byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() / 2);
+		assertThrows(IOException.class, () -> DictionaryIndex.read(new ByteArrayInputStream(truncated)));
+		assertThrows(IOException.class, () -> DictionaryIndex.read(new ByteArrayInputStream(new byte[16])));
+	}
+
+	@Test
+	void readFromJar() throws IOException, URISyntaxException {
+		final Path jar = Files.createTempFile("tnp", ".jar");
+		try {
+			try(OutputStream file = Files.newOutputStream(jar); JarOutputStream out = new JarOutputStream(file);
+				InputStream in = DictionaryIndex.class.getClassLoader().getResourceAsStream(DictionaryIndex.RESOURCE)) {
+				assertNotNull(in);
+				out.putNextEntry(new JarEntry(DictionaryIndex.RESOURCE));
+				final byte[] buffer = new byte[8192];
+				for(int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+					out.write(buffer, 0, read);
+				}
+				out.closeEntry();
+			}
+			// No parent class loader, so the resource is found in the JAR only.
+			try(URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+				final URL resource = loader.getResource(DictionaryIndex.RESOURCE);
+				assertEquals("jar", resource.getProtocol());
+				final DictionaryIndex read = LanguageDetector.readIndex(resource);
+				final DictionaryIndex index = LanguageDetector.getIndex();
+				assertArrayEquals(index.languages, read.languages);
+				assertArrayEquals(index.sizes, read.sizes);
+				for(String word : Arrays.asList("the", "questo", "один", "zaza")) {
+					assertEquals(index.lookup(word, 0, word.length()), read.lookup(word, 0, word.length()), word);
+				}
+			}
+		} finally {
+			Files.deleteIfExists(jar);
+		}
+	}
+}
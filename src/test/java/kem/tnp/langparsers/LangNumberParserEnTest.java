@@ -1,12 +1,16 @@
 package kem.tnp.langparsers;
 
 import kem.tnp.common.LangNumberParser;
+import kem.tnp.common.ParseResult;
 import kem.tnp.common.StringNumberParser;
+import kem.tnp.common.UnrecognizedTokenException;
 import kem.tnp.common.langparsers.LangNumberParserEn;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Created by Evgeny Kurtser on 08-Jan-22 at 11:43 PM.
@@ -179,4 +183,64 @@ class LangNumberParserEnTest {
 		LangNumberParserEn parser = new LangNumberParserEn();
 		assertThrows(RuntimeException.class, () -> parser.stringToNumber("five thousand two hundreds zaza seventy four"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	void parseNormalization() {
+		LangNumberParserEn parser = new LangNumberParserEn();
+		assertEquals(5_274L, parser.stringToNumber("Five Thousands Two HUNDREDS and Seventy - Four"));
+		assertEquals(1_100_000L, parser.stringToNumber("a million a hundred thousand"));
+		assertEquals(100L, parser.stringToNumber("hundred"));
+		assertEquals(2_500L, parser.stringToNumber("two thousand five-hundred"));
+
+		assertThrows(UnrecognizedTokenException.class, () -> parser.stringToNumber("a"));
+		assertThrows(UnrecognizedTokenException.class, () -> parser.stringToNumber("a five"));
+		assertThrows(UnrecognizedTokenException.class, () -> parser.stringToNumber("and five"));
+		assertThrows(UnrecognizedTokenException.class, () -> parser.stringToNumber("twenty five hundred"));
+		assertThrows(UnrecognizedTokenException.class, () -> parser.stringToNumber("twenty a hundred"));
+	}
+
+	@Test
+	void parseLong() {
+		LangNumberParserEn parser = new LangNumberParserEn();
+		ParseResult result = new ParseResult();
+		String text = "five thousand two hundreds zaza seventy four";
+
+		assertEquals(5_274L, parser.parseLong("five thousand two hundred seventy-four", result));
+		assertTrue(result.isSuccess());
+
+		assertEquals(ParseResult.NO_VALUE, parser.parseLong(text, result));
+		assertEquals(ParseResult.Status.UNRECOGNIZED_TOKEN, result.getStatus());
+		assertEquals("zaza", text.substring(result.getErrorStart(), result.getErrorEnd()));
+
+		assertEquals(ParseResult.NO_VALUE, parser.parseLong("twelve five", result));
+		assertEquals(ParseResult.Status.UNEXPECTED_TOKEN, result.getStatus());
+		assertEquals(7, result.getErrorStart());
+
+		assertEquals(ParseResult.NO_VALUE, parser.parseLong("five thousand a", result));
+		assertEquals(ParseResult.Status.INCOMPLETE, result.getStatus());
+
+		assertEquals(ParseResult.NO_VALUE, parser.parseLong("  ", result));
+		assertEquals(ParseResult.Status.EMPTY_INPUT, result.getStatus());
+
+		result.setLenient(true);
+		assertEquals(5_274L, parser.parseLong(text, result));
+		assertEquals(1, result.getSkippedTokens());
+	}
+
+	@Test
+	void render() throws IOException {
+		LangNumberParser parser = new LangNumberParserEn().with("useHyphen", "false");
+		StringWriter out = new StringWriter();
+
+		assertSame(out, parser.render(5_274L, out.append("Total: ")));
+		assertEquals("Total: five thousand two hundred seventy four", out.toString());
+
+		assertEquals("five", parser.numberToString(5L));
+		assertEquals("one million", parser.numberToString(1_000_000L));
+		assertEquals("one million and five", parser.numberToString(1_000_005L));
+		assertEquals("two billion one hundred and one", parser.numberToString(2_000_000_101L));
+		assertEquals("a hundred five thousand", parser.with("onePrefix", "a").numberToString(105_000L));
+		assertEquals(1_000_005L, parser.stringToNumber(parser.numberToString(1_000_005L)));
+		assertThrows(IllegalArgumentException.class, () -> parser.numberToString(1_000_000_000_000_000L));
+	}
+}
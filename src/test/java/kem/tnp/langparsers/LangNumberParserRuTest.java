@@ -1,9 +1,13 @@
 package kem.tnp.langparsers;
 
+import kem.tnp.common.UnrecognizedTokenException;
 import kem.tnp.common.langparsers.LangNumberParserRu;
 import org.junit.jupiter.api.Test;
 
+import java.nio.CharBuffer;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -178,4 +182,40 @@ class LangNumberParserRuTest {
 		LangNumberParserRu parser = new LangNumberParserRu();
 		assertThrows(RuntimeException.class, () -> parser.stringToNumber("пять тысяч двести zaza семьдесят четыре"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	void parseSlice() {
+		LangNumberParserRu parser = new LangNumberParserRu();
+		StringBuilder payload = new StringBuilder("Итого: пять тысяч двести семьдесят четыре рубля");
+		int start = payload.indexOf("пять");
+		int end = payload.indexOf(" рубля");
+
+		assertEquals(5_274L, parser.stringToNumber(payload, start, end));
+		assertEquals(5_274L, parser.stringToNumber(CharBuffer.wrap(payload), start, end));
+		assertThrows(UnrecognizedTokenException.class, () -> parser.stringToNumber(payload, 0, end));
+		assertThrows(UnrecognizedTokenException.class, () -> parser.stringToNumber(payload, start, start));
+		assertThrows(IndexOutOfBoundsException.class, () -> parser.stringToNumber(payload, start, payload.length() + 1));
+	}
+
+	@Test
+	void parseIgnoreCase() {
+		LangNumberParserRu parser = new LangNumberParserRu();
+		assertEquals(5_274L, parser.stringToNumber("Пять ТЫСЯЧ двести семьдесят Четыре"));
+	}
+
+	@Test
+	void render() {
+		LangNumberParserRu parser = new LangNumberParserRu();
+		StringBuilder out = new StringBuilder("Итого: ");
+
+		assertSame(out, parser.render(5_274L, out));
+		assertEquals("Итого: пять тысяч двести семьдесят четыре", out.toString());
+
+		assertEquals("один миллион пять", parser.numberToString(1_000_005L));
+		assertEquals("одна тысяча", parser.numberToString(1_000L));
+		assertEquals("двадцать две тысячи", parser.numberToString(22_000L));
+		assertEquals("двенадцать тысяч", parser.numberToString(12_000L));
+		assertEquals(21_001_000L, parser.stringToNumber(parser.numberToString(21_001_000L)));
+		assertThrows(IllegalArgumentException.class, () -> parser.numberToString(-1L));
+	}
+}
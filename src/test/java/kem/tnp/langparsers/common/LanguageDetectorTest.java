@@ -1,6 +1,8 @@
 package kem.tnp.langparsers.common;
 
 import kem.tnp.common.LanguageDetector;
+import kem.tnp.common.MemoCache;
+import kem.tnp.common.Script;
 import kem.tnp.common.Tuple2;
 import org.junit.jupiter.api.Test;
 
@@ -8,6 +10,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -114,4 +118,74 @@ class LanguageDetectorTest {
 		assertTrue(language.isPresent());
 		assertEquals(language.get(), "ua");
 	}
-}
\ No newline at end of file
+
+	@Test
+	void detectLanguagesSharedWords() {
+		// "один" and "два" are both Russian and Ukrainian words, "ТЫСЯЧ" is Russian only.
+		final Optional<List<Tuple2<String, Float>>> languages = LanguageDetector.getLanguageDetector().detectLanguages("Один два ТЫСЯЧ");
+		assertTrue(languages.isPresent());
+		assertEquals(2, languages.get().size());
+		assertEquals("ru", languages.get().get(0).getA());
+		assertEquals("ua", languages.get().get(1).getA());
+	}
+
+	@Test
+	void detectLanguageBounded() {
+		final LanguageDetector detector = LanguageDetector.getLanguageDetector();
+		final StringBuilder input = new StringBuilder();
+		for(int i = 0; i < 1_000_000; i++) {
+			input.append("five thousand ");
+		}
+		assertEquals(Optional.of("en"), detector.detectLanguage(input));
+		assertEquals(Optional.of("en"), detector.withMaxChars(4).detectLanguage("one два"));
+		// The only word is cut by the characters limit.
+		assertEquals(Optional.empty(), detector.withMaxChars(2).detectLanguage("one два"));
+		assertEquals(Optional.empty(), detector.detectLanguage("zaza"));
+		assertEquals(Optional.of("ru"), detector.withMaxWords(1).withConfidenceMargin(Integer.MAX_VALUE).detectLanguage("тысяч one two"));
+	}
+
+	@Test
+	void detectLanguageScripts() {
+		assertEquals(Script.LATIN.mask() | Script.CYRILLIC.mask(), Script.scan("п'ять (five) 15", 0, 15));
+		assertEquals(Script.CYRILLIC, Script.of('ї'));
+		assertEquals(Script.LATIN, Script.of('ñ'));
+		assertNull(Script.of('5'));
+
+		final Optional<List<Tuple2<String, Float>>> languages = LanguageDetector.getLanguageDetector().detectLanguages("один 12 !!");
+		assertTrue(languages.isPresent());
+		assertEquals(2, languages.get().size());
+		assertTrue(languages.get().stream().allMatch(lang -> lang.getA().equals("ru") || lang.getA().equals("ua")));
+		assertEquals(Optional.empty(), LanguageDetector.getLanguageDetector().detectLanguage("שלום 12"));
+	}
+
+	@Test
+	void compiledDictionaries() {
+		// The detector reads the index compiled at build time rather than the text dictionaries.
+		assertNotNull(LanguageDetector.class.getClassLoader().getResource("dict/languages.idx"));
+		assertEquals(Optional.of("it"), LanguageDetector.getLanguageDetector().detectLanguage("questo è il mio libro"));
+	}
+
+	@Test
+	void detectCapitalizedDictionaryWords() {
+		// These words are capitalized in the dictionaries, and the input is lower-cased anyway.
+		assertEquals(Optional.of("es"), LanguageDetector.getLanguageDetector().detectLanguage("siete"));
+		assertEquals(Optional.of("es"), LanguageDetector.getLanguageDetector().detectLanguage("Cerrar"));
+		assertEquals(Optional.of("fr"), LanguageDetector.getLanguageDetector().detectLanguage("ARRÊTEZ"));
+	}
+
+	@Test
+	void detectLanguageCached() {
+		final LanguageDetector detector = LanguageDetector.getLanguageDetector().withCache(2);
+		assertEquals(Optional.empty(), LanguageDetector.getLanguageDetector().getCacheStats());
+		assertEquals(Optional.of("en"), detector.detectLanguage("five thousand"));
+		// Same input up to case and spacing.
+		assertEquals(Optional.of("en"), detector.detectLanguage(" Five  THOUSAND"));
+		detector.detectLanguages("один").ifPresent(List::clear);
+		assertEquals(2, detector.detectLanguages("один").map(List::size).orElse(0));
+		final MemoCache.Stats stats = detector.getCacheStats().orElseThrow(IllegalStateException::new);
+		assertEquals(2, stats.getHitCount());
+		assertEquals(2, stats.getMissCount());
+		assertEquals(2, stats.getSize());
+		assertEquals(2, detector.withMaxWords(10).getCacheStats().map(MemoCache.Stats::getMaximumSize).orElse(0));
+	}
+}
@@ -0,0 +1,34 @@
+package kem.tnp.langparsers.common;
+
+import kem.tnp.common.LangNumberParser;
+import kem.tnp.common.LanguageHandler;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Parser that is configured in place, as {@linkplain LangNumberParser#with(String, Object)} contract allows.
+ * It does not override {@linkplain LangNumberParser#configure(kem.tnp.common.ParserConfig)}.
+ * Created on 19-Oct-26 at 10:20 AM.
+ */
+@LanguageHandler(languageCode = "qq")
+public class MutableTestParser implements LangNumberParser {
+	private String suffix = "";
+
+	@Override
+	public Long stringToNumber(String input) {
+		return Long.valueOf(input.substring(0, input.length() - suffix.length()));
+	}
+
+	@Override
+	public String numberToString(Long input) {
+		return input + suffix;
+	}
+
+	@Override
+	public LangNumberParser with(@NotNull String key, @NotNull Object value) {
+		if("suffix".equals(key)) {
+			suffix = value.toString();
+		}
+		return this;
+	}
+}
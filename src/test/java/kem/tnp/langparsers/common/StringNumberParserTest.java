@@ -1,14 +1,60 @@
 package kem.tnp.langparsers.common;
 
+import kem.tnp.common.DefaultParserMetrics;
+import kem.tnp.common.FusedNumberParser;
+import kem.tnp.common.IncrementalNumberParser;
+import kem.tnp.common.LangNumberParser;
+import kem.tnp.common.LanguageDetector;
 import kem.tnp.common.LanguageException;
+import kem.tnp.common.MemoCache;
+import kem.tnp.common.Metrics;
+import kem.tnp.common.NumberExtractor;
+import kem.tnp.common.NumberPhrase;
+import kem.tnp.common.ParallelNumberParser;
+import kem.tnp.common.ParseResult;
+import kem.tnp.common.ParserConfig;
+import kem.tnp.common.ParserMetrics;
+import kem.tnp.common.PinnedNumberParser;
 import kem.tnp.common.StringNumberParser;
+import kem.tnp.common.TextNumberParserManagement;
+import kem.tnp.common.Tuple2;
+import kem.tnp.common.UnrecognizedTokenException;
+import kem.tnp.common.WarmUpReport;
 import org.junit.jupiter.api.Test;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Created by Evgeny Kurtser on 08-Jan-22 at 11:43 PM.
@@ -151,9 +197,493 @@ class StringNumberParserTest {
 		assert "a hundred fifty-two".equals(StringNumberParser.numberToString(num, "en", params));
 	}
 
+	@Test
+	void numberToStringConcurrentParams() throws InterruptedException, ExecutionException {
+		final ParserConfig aNoHyphen = ParserConfig.of("onePrefix", "a").with("useHyphen", "false");
+		final ParserConfig oneHyphen = ParserConfig.of("onePrefix", "one").with("useHyphen", "true");
+		assertSame(StringNumberParser.getLangNumberParser("en", aNoHyphen).orElse(null), StringNumberParser.getLangNumberParser("en", aNoHyphen).orElse(null));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<Boolean>> results = new ArrayList<>();
+			for(int i = 0; i < 1_000; i++) {
+				final boolean even = i % 2 == 0;
+				results.add(executor.submit(() -> even ?
+						"a hundred fifty two".equals(StringNumberParser.numberToString(152L, "en", aNoHyphen)) :
+						"one hundred fifty-two".equals(StringNumberParser.numberToString(152L, "en", oneHyphen))));
+			}
+			for(Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void configureMutableParser() throws LanguageException, UnrecognizedTokenException {
+		final LangNumberParser registered = StringNumberParser.getLangNumberParser("qq").orElse(null);
+		assertNotNull(registered);
+		final LangNumberParser variant = StringNumberParser.getLangNumberParser("qq", ParserConfig.of("suffix", "!")).orElse(null);
+		assertNotSame(registered, variant);
+		assertSame(variant, StringNumberParser.getLangNumberParser("qq", ParserConfig.of("suffix", "!")).orElse(null));
+		assertEquals("152!", StringNumberParser.numberToString(152L, "qq", ParserConfig.of("suffix", "!")));
+		// The registered instance is not reconfigured by the variant.
+		assertEquals("152", registered.numberToString(152L));
+		assertEquals("152", StringNumberParser.numberToString(152L, "qq", ParserConfig.EMPTY));
+		assertEquals("152?", StringNumberParser.numberToString(152L, "qq", ParserConfig.of("suffix", "?")));
+		assertEquals("152!", variant.numberToString(152L));
+	}
+
 	@Test
 	void parseStringNumberInvalidInput() {
 		assertThrows(RuntimeException.class, () -> StringNumberParser.textToNumber("five thousands two hundreds zaza seventy four"));
 		assertThrows(RuntimeException.class, () -> StringNumberParser.textToNumber("пять тысяч двести zaza семьдесят четыре"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	void parseLong() {
+		final ParseResult result = new ParseResult();
+		assertEquals(5_274L, StringNumberParser.parseLong("пять тысяч двести семьдесят четыре", result));
+		assertEquals("ru", result.getLanguageCode());
+
+		assertEquals(ParseResult.NO_VALUE, StringNumberParser.parseLong("quindici", result));
+		assertEquals(ParseResult.Status.UNSUPPORTED_LANGUAGE, result.getStatus());
+		assertEquals("it", result.getLanguageCode());
+
+		assertEquals(ParseResult.NO_VALUE, StringNumberParser.parseLong("пять тысяч двести zaza семьдесят четыре", result));
+		assertEquals(ParseResult.Status.UNRECOGNIZED_TOKEN, result.getStatus());
+	}
+
+	@Test
+	void pin() {
+		final ParseResult result = new ParseResult();
+		final PinnedNumberParser ru = StringNumberParser.pin("ru");
+		assertEquals(5_274L, ru.textToNumber("пять тысяч двести семьдесят четыре"));
+		assertThrows(UnrecognizedTokenException.class, () -> ru.textToNumber("five"));
+
+		final PinnedNumberParser ruEn = StringNumberParser.pin(ParserConfig.EMPTY, "ru", "en");
+		assertEquals(5L, ruEn.parseLong("five", result));
+		assertEquals("en", result.getLanguageCode());
+		assertEquals(ParseResult.NO_VALUE, ruEn.parseLong("пять zaza", result));
+		assertEquals(ParseResult.Status.UNRECOGNIZED_TOKEN, result.getStatus());
+		assertEquals("ru", result.getLanguageCode());
+		assertEquals(5, result.getErrorStart());
+
+		assertThrows(LanguageException.class, () -> StringNumberParser.pin("it"));
+	}
+
+	@Test
+	void textToNumbers() {
+		final List<CharSequence> column = new ArrayList<>();
+		for(int i = 0; i < 100; i++) {
+			column.add(StringNumberParser.numberToString((i + 1) * 1_000L, "en"));
+		}
+		column.set(10, "пять тысяч");
+		column.set(20, "five zaza");
+		column.set(30, null);
+		column.set(40, new StringBuilder("Two Hundred"));
+		final long[] values = new long[column.size() + 1];
+		final BitSet failures = new BitSet();
+		failures.set(50); // stale bit is cleared
+		assertEquals(2, StringNumberParser.textToNumbers(column, values, failures, ParserConfig.EMPTY, "en"));
+		assertEquals("{20, 30}", failures.toString());
+		assertEquals(5_000L, values[10]);
+		assertEquals(ParseResult.NO_VALUE, values[20]);
+		assertEquals(200L, values[40]);
+		assertEquals(100_000L, values[99]);
+
+		assertEquals(0, StringNumberParser.textToNumbers(new CharSequence[]{"два", "три тысячи"}, values, failures, ParserConfig.EMPTY));
+		assertEquals(2L, values[0]);
+		assertEquals(3_000L, values[1]);
+		assertEquals(20, failures.nextSetBit(0)); // bits beyond the inputs are left as is
+		assertThrows(IllegalArgumentException.class, () -> StringNumberParser.textToNumbers(column, new long[1], failures, ParserConfig.EMPTY));
+	}
+
+	@Test
+	void parallel() throws InterruptedException {
+		final long[] numbers = new long[10_000];
+		for(int i = 0; i < numbers.length; i++) {
+			numbers[i] = i * 7_919L + 1;
+		}
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			final ParallelNumberParser bulk = StringNumberParser.parallel().withPool(pool).withMinChunkSize(100);
+			assertEquals(128, bulk.getMinChunkSize());
+			final String[] texts = bulk.numbersToStrings(numbers, "ru");
+			for(int i = 0; i < numbers.length; i += 997) {
+				assertEquals(StringNumberParser.numberToString(numbers[i], "ru"), texts[i]);
+			}
+
+			final List<String> column = new ArrayList<>(Arrays.asList(texts));
+			column.set(4_321, "пять зяблик");
+			column.set(9_999, null);
+			final long[] values = new long[column.size()];
+			final BitSet failures = new BitSet();
+			assertEquals(2, bulk.textToNumbers(column, values, failures));
+			assertEquals("{4321, 9999}", failures.toString());
+			final long[] expected = numbers.clone();
+			expected[4_321] = ParseResult.NO_VALUE;
+			expected[9_999] = ParseResult.NO_VALUE;
+			assertArrayEquals(expected, values);
+
+			// Small batches are converted in the calling thread.
+			final long[] small = new long[2];
+			assertEquals(0, bulk.withMinChunkSize(ParallelNumberParser.DEFAULT_MIN_CHUNK_SIZE).textToNumbers(new CharSequence[]{"two", "three"}, small, failures));
+			assertArrayEquals(new long[]{2L, 3L}, small);
+		} finally {
+			pool.shutdown();
+			pool.awaitTermination(1, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void extractor() throws IOException {
+		final String text = "I paid twenty-five thousand dollars, and he got пять тысяч рублей. Twenty. Five apples a day; one hundred and five six a dog.";
+		final NumberExtractor extractor = StringNumberParser.extractor();
+		final List<NumberPhrase> phrases = extractor.extract(text);
+		assertEquals(Arrays.asList(
+				new NumberPhrase(7, 27, 25_000L, "en"),
+				new NumberPhrase(48, 58, 5_000L, "ru"),
+				new NumberPhrase(67, 73, 20L, "en"),
+				new NumberPhrase(75, 79, 5L, "en"),
+				new NumberPhrase(94, 114, 105L, "en"),
+				new NumberPhrase(115, 118, 6L, "en")), phrases);
+		assertEquals("twenty-five thousand", text.substring(7, 27));
+
+		// Phrases and words cross the buffer boundaries.
+		final StringBuilder longText = new StringBuilder();
+		for(int i = 0; i < 100; i++) {
+			longText.append(text).append(' ');
+		}
+		final List<NumberPhrase> read = new ArrayList<>();
+		extractor.withBufferSize(64).extract(new StringReader(longText.toString()),
+				(start, end, value, languageCode) -> read.add(new NumberPhrase(start, end, value, languageCode)));
+		assertEquals(extractor.extract(longText), read);
+		assertEquals(600, read.size());
+
+		assertEquals(Collections.singletonList(new NumberPhrase(5, 15, 5_000L, "ru")),
+				StringNumberParser.extractor(ParserConfig.EMPTY, "ru").extract("five пять тысяч"));
+		assertThrows(IllegalArgumentException.class, () -> extractor.withBufferSize(10));
+	}
+
+	@Test
+	void extractFile() throws IOException {
+		final StringBuilder text = new StringBuilder();
+		for(int i = 0; i < 300; i++) {
+			text.append("I paid twenty-five thousand dollars, and he got пять тысяч рублей.\nTwenty five apples;  one hundred\tand ")
+					.append(i).append(" ninety-nine six a dog ");
+		}
+		final String content = text.toString();
+		final NumberExtractor extractor = StringNumberParser.extractor();
+		final List<NumberPhrase> expected = new ArrayList<>();
+		for(NumberPhrase phrase : extractor.extract(content)) {
+			expected.add(new NumberPhrase(utf8Length(content, phrase.getStart()), utf8Length(content, phrase.getEnd()),
+					phrase.getValue(), phrase.getLanguageCode()));
+		}
+		final Path file = Files.createTempFile("tnp", ".txt");
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+			final List<NumberPhrase> phrases = new ArrayList<>();
+			extractor.extract(file, (start, end, value, languageCode) -> phrases.add(new NumberPhrase(start, end, value, languageCode)));
+			assertEquals(expected, phrases);
+
+			// Small regions split phrases and multibyte characters; the result is the same.
+			final NumberExtractor regions = extractor.withRegionSize(37).withBufferSize(64).withPool(pool);
+			final List<NumberPhrase> split = new ArrayList<>();
+			final List<Long> checkpoints = new ArrayList<>();
+			regions.extract(file, 0, (start, end, value, languageCode) -> split.add(new NumberPhrase(start, end, value, languageCode)),
+					checkpoints::add);
+			assertEquals(expected, split);
+			assertTrue(checkpoints.size() > 100);
+			assertEquals(content.getBytes(StandardCharsets.UTF_8).length, (long) checkpoints.get(checkpoints.size() - 1));
+
+			// Restart from a checkpoint reports the rest of the phrases.
+			final long checkpoint = checkpoints.get(checkpoints.size() / 2);
+			final List<NumberPhrase> rest = new ArrayList<>();
+			regions.extract(file, checkpoint, (start, end, value, languageCode) -> rest.add(new NumberPhrase(start, end, value, languageCode)),
+					offset -> {
+					});
+			assertEquals(expected.stream().filter(phrase -> phrase.getStart() >= checkpoint).collect(Collectors.toList()), rest);
+			assertThrows(IllegalArgumentException.class, () -> regions.extract(file, -1, (start, end, value, languageCode) -> {
+			}, offset -> {
+			}));
+		} finally {
+			pool.shutdown();
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static long utf8Length(String text, long end) {
+		return text.substring(0, (int) end).getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	@Test
+	void incremental() throws LanguageException {
+		final IncrementalNumberParser parser = StringNumberParser.incremental("en");
+		assertEquals(IncrementalNumberParser.Outcome.REJECTED, parser.accept("paid"));
+		assertEquals(IncrementalNumberParser.Outcome.STARTS_NEW, parser.accept("twenty"));
+		assertEquals(ParseResult.NO_VALUE, parser.finishedValue());
+		assertEquals(20L, parser.currentValue());
+		assertEquals(IncrementalNumberParser.Outcome.CONTINUES, parser.accept("five"));
+		assertEquals(IncrementalNumberParser.Outcome.CONTINUES, parser.accept("Thousand"));
+		assertEquals(25_000L, parser.currentValue());
+		assertEquals(IncrementalNumberParser.Outcome.REJECTED, parser.accept("dollars"));
+		assertEquals(25_000L, parser.finishedValue());
+		assertFalse(parser.isComplete());
+
+		assertEquals(IncrementalNumberParser.Outcome.STARTS_NEW, parser.accept("five"));
+		assertEquals(IncrementalNumberParser.Outcome.STARTS_NEW, parser.accept("six"));
+		assertEquals(5L, parser.finishedValue());
+		assertEquals(IncrementalNumberParser.Outcome.STARTS_NEW, parser.accept("a"));
+		assertEquals(6L, parser.finishedValue());
+		assertFalse(parser.isComplete());
+		assertEquals(ParseResult.NO_VALUE, parser.currentValue());
+		assertEquals(IncrementalNumberParser.Outcome.CONTINUES, parser.accept("hundred"));
+		assertEquals(IncrementalNumberParser.Outcome.CONTINUES, parser.accept("and"));
+		assertEquals(IncrementalNumberParser.Outcome.CONTINUES, parser.accept("forty-six"));
+		assertEquals(146L, parser.currentValue());
+		assertTrue(parser.isComplete());
+
+		// A joined token finishes the current number and the one it starts.
+		parser.reset();
+		assertEquals(IncrementalNumberParser.Outcome.STARTS_NEW, parser.accept("seven"));
+		assertEquals(IncrementalNumberParser.Outcome.STARTS_NEW, parser.accept("five-six"));
+		assertEquals(2, parser.getFinishedCount());
+		assertEquals(7L, parser.finishedValue());
+		assertEquals(5L, parser.finishedValue(1));
+		assertEquals(6L, parser.currentValue());
+		assertEquals(IncrementalNumberParser.Outcome.REJECTED, parser.accept("five-zaza"));
+		assertEquals(2, parser.getFinishedCount());
+		assertEquals(6L, parser.finishedValue(0));
+		assertEquals(5L, parser.finishedValue(1));
+		assertEquals(IncrementalNumberParser.Outcome.REJECTED, parser.accept(" "));
+		assertEquals(0, parser.getFinishedCount());
+		assertThrows(IndexOutOfBoundsException.class, () -> parser.finishedValue(0));
+
+		parser.reset();
+		assertFalse(parser.isComplete());
+		assertEquals(IncrementalNumberParser.Outcome.REJECTED, parser.accept("and"));
+		final IncrementalNumberParser ru = StringNumberParser.incremental("ru");
+		for(String word : "пять тысяч двести семьдесят четыре".split(" ")) {
+			ru.accept(word);
+		}
+		assertEquals(5_274L, ru.currentValue());
+		assertThrows(LanguageException.class, () -> StringNumberParser.incremental("zz"));
+	}
+
+	@Test
+	void fuse() {
+		final ParseResult result = new ParseResult();
+		final FusedNumberParser fused = StringNumberParser.fuse();
+		assertTrue(fused.getLanguageCodes().containsAll(Arrays.asList("en", "ru")));
+		assertEquals(5_274L, fused.textToNumber("пять тысяч двести семьдесят четыре"));
+		assertEquals(5L, fused.parseLong("five", result));
+		assertEquals("en", result.getLanguageCode());
+		assertEquals(14_246L, fused.parseLong("fourteen thousand two hundred and forty-six", result));
+		assertEquals("en", result.getLanguageCode());
+		assertEquals(ParseResult.NO_VALUE, fused.parseLong("пять тысяч zaza", result));
+		assertEquals(ParseResult.Status.UNRECOGNIZED_TOKEN, result.getStatus());
+		assertEquals("ru", result.getLanguageCode());
+		assertEquals(11, result.getErrorStart());
+		assertThrows(UnrecognizedTokenException.class, () -> fused.textToNumber("five zaza"));
+		assertThrows(LanguageException.class, () -> fused.textToNumber("חמש"));
+
+		final FusedNumberParser lenient = StringNumberParser.fuse(ParserConfig.EMPTY, "ru", "en");
+		assertEquals(5_000L, lenient.parseLong("five zaza thousand", new ParseResult(true)));
+	}
+
+	@Test
+	void cache() {
+		assertEquals(Optional.empty(), StringNumberParser.getCacheStats());
+		StringNumberParser.enableCache(4);
+		try {
+			assertEquals(5_000L, StringNumberParser.textToNumber("five thousand"));
+			assertEquals(5_000L, StringNumberParser.textToNumber("Five   Thousand"));
+			assertEquals(5_000L, StringNumberParser.textToNumber("пять тысяч"));
+			// Different configuration is a different key.
+			assertEquals(5_000L, StringNumberParser.textToNumber("five thousand", ParserConfig.of("onePrefix", "a")));
+			assertThrows(UnrecognizedTokenException.class, () -> StringNumberParser.textToNumber("five zaza", "en"));
+			MemoCache.Stats stats = StringNumberParser.getCacheStats().orElseThrow(IllegalStateException::new);
+			assertEquals(1, stats.getHitCount());
+			assertEquals(4, stats.getMissCount());
+			assertEquals(3, stats.getSize());
+
+			// One-off inputs don't push the popular one out of the full cache.
+			for(int i = 0; i < 100; i++) {
+				StringNumberParser.textToNumber("five thousand");
+			}
+			for(int i = 1; i <= 20; i++) {
+				StringNumberParser.textToNumber(StringNumberParser.numberToString((long) i, "en"), "en");
+			}
+			stats = StringNumberParser.getCacheStats().orElseThrow(IllegalStateException::new);
+			assertEquals(4, stats.getSize());
+			assertTrue(stats.getEvictionCount() > 0);
+			final long hits = stats.getHitCount();
+			StringNumberParser.textToNumber("five thousand");
+			assertEquals(hits + 1, StringNumberParser.getCacheStats().map(MemoCache.Stats::getHitCount).orElse(0L));
+		} finally {
+			StringNumberParser.disableCache();
+		}
+	}
+
+	@Test
+	void warmUp() {
+		final WarmUpReport init = StringNumberParser.warmUp();
+		assertEquals(EnumSet.of(WarmUpReport.Stage.REGISTRY, WarmUpReport.Stage.LEXICONS, WarmUpReport.Stage.DICTIONARIES), init.getDurations().keySet());
+		final WarmUpReport report = StringNumberParser.warmUp(2);
+		assertEquals(EnumSet.allOf(WarmUpReport.Stage.class), report.getDurations().keySet());
+		assertTrue(report.getDurations().values().stream().allMatch(duration -> duration >= 0));
+		assertTrue(report.getTotalNanos() >= report.getDurations().get(WarmUpReport.Stage.JIT));
+		assertThrows(IllegalArgumentException.class, () -> StringNumberParser.warmUp(-1));
+
+		// The corpus is not counted as traffic.
+		final DefaultParserMetrics metrics = new DefaultParserMetrics();
+		Metrics.install(metrics);
+		try {
+			StringNumberParser.warmUp(1);
+			for(ParserMetrics.Operation operation : ParserMetrics.Operation.values()) {
+				assertEquals(Collections.emptyMap(), metrics.getStats(operation), operation.name());
+			}
+			assertEquals(5_000L, StringNumberParser.textToNumber("five thousand"));
+			assertEquals(1, metrics.getStats(ParserMetrics.Operation.PARSE).get("en").getCalls());
+		} finally {
+			Metrics.install(null);
+		}
+	}
+
+	@Test
+	void metrics() {
+		final DefaultParserMetrics metrics = new DefaultParserMetrics(2);
+		Metrics.install(metrics);
+		try {
+			assertEquals(5_000L, StringNumberParser.textToNumber("five thousand"));
+			assertEquals("пять тысяч", StringNumberParser.numberToString(5_000L, "ru"));
+			for(String token : new String[]{"zaza", "zaza", "zaza", "bubu", "kuku"}) {
+				assertThrows(UnrecognizedTokenException.class, () -> StringNumberParser.textToNumber("five " + token, "en"));
+			}
+			final DefaultParserMetrics.OperationStats parse = metrics.getStats(ParserMetrics.Operation.PARSE).get("en");
+			assertEquals(6, parse.getCalls());
+			assertEquals(5, parse.getFailures());
+			assertEquals(6, parse.getLatency().count());
+			assertTrue(parse.getLatency().percentileNanos(0.5) > 0);
+			assertEquals(1, metrics.getStats(ParserMetrics.Operation.RENDER).get("ru").getCalls());
+			assertTrue(metrics.getStats(ParserMetrics.Operation.DETECT).get("en").getCalls() > 0);
+			// Only 2 distinct tokens are tracked, but the most frequent one is kept.
+			final List<Tuple2<String, Long>> tokens = metrics.getTopUnrecognizedTokens(1);
+			assertEquals(Collections.singletonList(Tuple2.of("zaza", 3L)), tokens);
+			assertEquals(2, metrics.getTopUnrecognizedTokens(10).size());
+		} finally {
+			Metrics.install(null);
+		}
+
+		// A frequent token is kept among many distinct rare ones, and the table doesn't grow.
+		final DefaultParserMetrics tokens = new DefaultParserMetrics(4);
+		for(int i = 0; i < 10_000; i++) {
+			final String input = i % 10 == 0 ? "five zaza" : "five token" + i;
+			tokens.unrecognizedToken(input, 5, input.length());
+		}
+		final List<Tuple2<String, Long>> top = tokens.getTopUnrecognizedTokens(10);
+		assertTrue(top.size() <= 4);
+		assertEquals("zaza", top.get(0).getA());
+		assertTrue(top.get(0).getB() >= 1_000L);
+		tokens.reset();
+		assertEquals(Collections.emptyList(), tokens.getTopUnrecognizedTokens(10));
+		assertFalse(Metrics.installed().isPresent());
+	}
+
+	@Test
+	void management() throws Exception {
+		TextNumberParserManagement.register();
+		TextNumberParserManagement.register(); // no-op
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName name = new ObjectName(TextNumberParserManagement.OBJECT_NAME);
+		try {
+			StringNumberParser.textToNumber("five thousand", ParserConfig.of("onePrefix", "a"));
+			final TabularData classes = (TabularData) server.getAttribute(name, "ParserClasses");
+			assertEquals("kem.tnp.common.langparsers.LangNumberParserEn", classes.get(new Object[]{"en"}).get("value"));
+			final TabularData variants = (TabularData) server.getAttribute(name, "ConfigVariants");
+			assertEquals(1, ((String[]) variants.get(new Object[]{"en"}).get("value")).length);
+			final TabularData sizes = (TabularData) server.getAttribute(name, "DictionarySizes");
+			assertTrue((Integer) sizes.get(new Object[]{"ru"}).get("value") > 0);
+			assertTrue(((String) server.getAttribute(name, "DictionarySource")).endsWith("languages.idx"));
+
+			server.setAttribute(name, new Attribute("MetricsEnabled", true));
+			StringNumberParser.textToNumber("five thousand");
+			final TabularData calls = (TabularData) server.getAttribute(name, "CallCounts");
+			assertEquals(1L, calls.get(new Object[]{"PARSE/en"}).get("value"));
+
+			// Metrics installed by the application are neither hidden nor replaced.
+			final List<String> recorded = new ArrayList<>();
+			final ParserMetrics custom = new ParserMetrics() {
+				@Override
+				public void record(Operation operation, String languageCode, long nanos, boolean success) {
+					recorded.add(operation + "/" + languageCode);
+				}
+
+				@Override
+				public void unrecognizedToken(CharSequence input, int start, int end) {
+				}
+			};
+			Metrics.install(custom);
+			assertEquals(true, server.getAttribute(name, "MetricsEnabled"));
+			server.setAttribute(name, new Attribute("MetricsEnabled", true));
+			assertSame(custom, Metrics.installed().orElse(null));
+			StringNumberParser.numberToString(5_000L, "en");
+			assertEquals(Collections.singletonList("RENDER/en"), recorded);
+			server.setAttribute(name, new Attribute("MetricsEnabled", false));
+			assertFalse(Metrics.installed().isPresent());
+			server.setAttribute(name, new Attribute("MetricsEnabled", true));
+			assertTrue(Metrics.installed().get() instanceof DefaultParserMetrics);
+
+			server.invoke(name, "flushCaches", null, null);
+			assertEquals(0, ((String[]) ((TabularData) server.getAttribute(name, "ConfigVariants")).get(new Object[]{"en"}).get("value")).length);
+			final long loadedAt = (Long) server.getAttribute(name, "DictionaryLoadedAt");
+			server.invoke(name, "reloadDictionaries", null, null);
+			assertTrue((Long) server.getAttribute(name, "DictionaryLoadedAt") >= loadedAt);
+			assertEquals(Optional.of("ru"), LanguageDetector.getLanguageDetector().detectLanguage("пять тысяч"));
+		} finally {
+			Metrics.install(null);
+			TextNumberParserManagement.unregister();
+		}
+		assertFalse(server.isRegistered(name));
+	}
+
+	@Test
+	void flightRecorderEvents() throws Exception {
+		final Path file = Files.createTempFile("tnp", ".jfr");
+		try(Recording recording = new Recording()) {
+			recording.enable("kem.tnp.TextToNumber").withThreshold(Duration.ZERO).withoutStackTrace();
+			recording.enable("kem.tnp.NumberToString").withThreshold(Duration.ZERO).withoutStackTrace();
+			recording.enable("kem.tnp.DetectLanguages").withThreshold(Duration.ZERO).withoutStackTrace();
+			recording.start();
+			assertEquals(5_000L, StringNumberParser.textToNumber("пять  тысяч"));
+			assertThrows(UnrecognizedTokenException.class, () -> StringNumberParser.textToNumber("five zaza", "en"));
+			assertEquals("five thousand", StringNumberParser.numberToString(5_000L, "en"));
+			recording.stop();
+			recording.dump(file);
+
+			final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+			final List<RecordedEvent> parsed = events.stream().filter(e -> e.getEventType().getName().equals("kem.tnp.TextToNumber")).collect(Collectors.toList());
+			assertEquals(2, parsed.size());
+			final RecordedEvent ok = parsed.stream().filter(e -> e.getString("outcome").equals("SUCCESS")).findFirst().get();
+			assertEquals("ru", ok.getString("language"));
+			assertEquals(11, ok.getInt("inputLength"));
+			assertEquals(2, ok.getInt("tokenCount"));
+			assertEquals(5_000L, ok.getLong("value"));
+			assertTrue(ok.getDuration("parseNanos").toNanos() > 0);
+			assertTrue(parsed.stream().anyMatch(e -> e.getString("outcome").equals("UNRECOGNIZED_TOKEN") && e.getString("language").equals("en")));
+
+			final RecordedEvent rendered = events.stream().filter(e -> e.getEventType().getName().equals("kem.tnp.NumberToString")).findFirst().get();
+			assertEquals("en", rendered.getString("language"));
+			assertEquals(13, rendered.getInt("inputLength"));
+			assertEquals(2, rendered.getInt("tokenCount"));
+
+			assertTrue(events.stream().filter(e -> e.getEventType().getName().equals("kem.tnp.DetectLanguages"))
+					.anyMatch(e -> "ru".equals(e.getString("language")) && e.getInt("candidates") > 0));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}